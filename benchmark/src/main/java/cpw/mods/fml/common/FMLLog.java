@@ -0,0 +1,55 @@
+/*
+ * Copyright (c) 2014, Zothf, All rights reserved.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library.
+ */
+
+package cpw.mods.fml.common;
+
+import org.apache.logging.log4j.Level;
+
+/**
+ * Stand-in for the FML log, writing the warnings and the errors to the standard error.
+ */
+public class FMLLog {
+	
+	public static void log(Level level, String format, Object... data) {
+		log(level, null, format, data);
+	}
+	
+	public static void log(Level level, Throwable ex, String format, Object... data) {
+		if (level.compareTo(Level.WARN) <= 0) {
+			System.err.println("[" + level + "] " + String.format(format, data));
+			if (ex != null)
+				ex.printStackTrace();
+		}
+	}
+	
+	public static void severe(String format, Object... data) {
+		log(Level.ERROR, format, data);
+	}
+	
+	public static void warning(String format, Object... data) {
+		log(Level.WARN, format, data);
+	}
+	
+	public static void info(String format, Object... data) {
+		log(Level.INFO, format, data);
+	}
+	
+	public static void fine(String format, Object... data) {
+		log(Level.DEBUG, format, data);
+	}
+	
+}
@@ -0,0 +1,35 @@
+/*
+ * Copyright (c) 2014, Zothf, All rights reserved.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library.
+ */
+
+package cpw.mods.fml.common;
+
+import cpw.mods.fml.relauncher.ReflectionHelper;
+
+/**
+ * Stand-in for the FML reflection helper. The stand-ins are not obfuscated, so the names are kept.
+ */
+public class ObfuscationReflectionHelper {
+	
+	public static <T, E> T getPrivateValue(Class<? super E> classToAccess, E instance, String... fieldNames) {
+		return ReflectionHelper.getPrivateValue(classToAccess, instance, fieldNames);
+	}
+	
+	public static String[] remapFieldNames(String className, String... fieldNames) {
+		return fieldNames;
+	}
+	
+}
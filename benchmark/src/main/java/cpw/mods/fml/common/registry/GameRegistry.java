@@ -0,0 +1,59 @@
+/*
+ * Copyright (c) 2014, Zothf, All rights reserved.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library.
+ */
+
+package cpw.mods.fml.common.registry;
+
+import java.util.List;
+
+import net.minecraft.item.ItemStack;
+import net.minecraft.item.crafting.CraftingManager;
+import net.minecraft.item.crafting.IRecipe;
+import net.minecraftforge.oredict.ShapelessOreRecipe;
+
+import com.google.common.collect.Lists;
+
+import cpw.mods.fml.common.IFuelHandler;
+
+/**
+ * Stand-in for the FML registry of recipes and fuels, holding the fuel handlers in the same field
+ * as the original.
+ */
+public class GameRegistry {
+	
+	private static List<IFuelHandler> fuelHandlers = Lists.newArrayList();
+	
+	@SuppressWarnings("unchecked")
+	public static void addRecipe(IRecipe recipe) {
+		CraftingManager.getInstance().getRecipeList().add(recipe);
+	}
+	
+	public static void addShapelessRecipe(ItemStack output, Object... params) {
+		addRecipe(new ShapelessOreRecipe(output, params));
+	}
+	
+	public static void registerFuelHandler(IFuelHandler handler) {
+		fuelHandlers.add(handler);
+	}
+	
+	public static int getFuelValue(ItemStack fuel) {
+		int ret = 0;
+		for (IFuelHandler handler : fuelHandlers)
+			ret = Math.max(ret, handler.getBurnTime(fuel));
+		return ret;
+	}
+	
+}
@@ -0,0 +1,61 @@
+/*
+ * Copyright (c) 2014, Zothf, All rights reserved.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library.
+ */
+
+package cpw.mods.fml.relauncher;
+
+import java.lang.reflect.Field;
+
+/**
+ * Stand-in for the FML reflection helper, finding the first declared field of the given names.
+ */
+public class ReflectionHelper {
+	
+	public static class UnableToFindFieldException extends RuntimeException {
+		public UnableToFindFieldException(String[] fieldNames, Exception e) {
+			super(e);
+		}
+	}
+	
+	public static class UnableToAccessFieldException extends RuntimeException {
+		public UnableToAccessFieldException(String[] fieldNames, Exception e) {
+			super(e);
+		}
+	}
+	
+	public static Field findField(Class<?> clazz, String... fieldNames) {
+		Exception failed = null;
+		for (String name : fieldNames)
+			try {
+				Field f = clazz.getDeclaredField(name);
+				f.setAccessible(true);
+				return f;
+			} catch (Exception e) {
+				failed = e;
+			}
+		throw new UnableToFindFieldException(fieldNames, failed);
+	}
+	
+	@SuppressWarnings("unchecked")
+	public static <T, E> T getPrivateValue(Class<? super E> classToAccess, E instance, String... fieldNames) {
+		try {
+			return (T) findField(classToAccess, fieldNames).get(instance);
+		} catch (Exception e) {
+			throw new UnableToAccessFieldException(fieldNames, e);
+		}
+	}
+	
+}
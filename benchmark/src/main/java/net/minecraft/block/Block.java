@@ -0,0 +1,33 @@
+/*
+ * Copyright (c) 2014, Zothf, All rights reserved.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library.
+ */
+
+package net.minecraft.block;
+
+import net.minecraft.util.RegistryNamespaced;
+
+/**
+ * Stand-in for the Minecraft block, registered by name only.
+ */
+public class Block {
+	
+	public static final RegistryNamespaced blockRegistry = new RegistryNamespaced();
+	
+	@Override public String toString() {
+		return String.valueOf(blockRegistry.getNameForObject(this));
+	}
+	
+}
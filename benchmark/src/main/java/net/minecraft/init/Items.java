@@ -0,0 +1,37 @@
+/*
+ * Copyright (c) 2014, Zothf, All rights reserved.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library.
+ */
+
+package net.minecraft.init;
+
+import net.minecraft.item.Item;
+
+/**
+ * Stand-in for the vanilla items McCollect refers to, registered under their vanilla names and ids.
+ */
+public class Items {
+	
+	public static final Item iron_ingot = register(265, "minecraft:iron_ingot");
+	public static final Item stick = register(280, "minecraft:stick");
+	public static final Item apple = register(260, "minecraft:apple");
+	
+	private static Item register(int id, String name) {
+		Item ret = new Item();
+		Item.itemRegistry.addObject(id, name, ret);
+		return ret;
+	}
+	
+}
@@ -0,0 +1,51 @@
+/*
+ * Copyright (c) 2014, Zothf, All rights reserved.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library.
+ */
+
+package net.minecraft.inventory;
+
+import net.minecraft.item.ItemStack;
+
+/**
+ * Stand-in for the Minecraft crafting grid, without a container.
+ */
+public class InventoryCrafting {
+	
+	private final ItemStack[] stackList;
+	private final int inventoryWidth;
+	
+	public InventoryCrafting(int width, int height) {
+		stackList = new ItemStack[width * height];
+		inventoryWidth = width;
+	}
+	
+	public int getSizeInventory() {
+		return stackList.length;
+	}
+	
+	public ItemStack getStackInSlot(int index) {
+		return index >= getSizeInventory() ? null : stackList[index];
+	}
+	
+	public ItemStack getStackInRowAndColumn(int column, int row) {
+		return column >= 0 && column < inventoryWidth ? getStackInSlot(column + row * inventoryWidth) : null;
+	}
+	
+	public void setInventorySlotContents(int index, ItemStack item) {
+		stackList[index] = item;
+	}
+	
+}
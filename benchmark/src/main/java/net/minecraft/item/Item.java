@@ -0,0 +1,57 @@
+/*
+ * Copyright (c) 2014, Zothf, All rights reserved.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library.
+ */
+
+package net.minecraft.item;
+
+import net.minecraft.block.Block;
+import net.minecraft.util.RegistryNamespaced;
+
+/**
+ * Stand-in for the Minecraft item. The item of a block is the item registered under the same name.
+ */
+public class Item {
+	
+	public static final RegistryNamespaced itemRegistry = new RegistryNamespaced();
+	
+	protected boolean hasSubtypes;
+	
+	public static int getIdFromItem(Item item) {
+		return item == null ? 0 : itemRegistry.getIDForObject(item);
+	}
+	
+	public static Item getItemById(int id) {
+		return (Item) itemRegistry.getObjectForID(id);
+	}
+	
+	public static Item getItemFromBlock(Block block) {
+		return (Item) itemRegistry.getObject(Block.blockRegistry.getNameForObject(block));
+	}
+	
+	public Item setHasSubtypes(boolean hasSubtypes) {
+		this.hasSubtypes = hasSubtypes;
+		return this;
+	}
+	
+	public boolean getHasSubtypes() {
+		return hasSubtypes;
+	}
+	
+	@Override public String toString() {
+		return String.valueOf(itemRegistry.getNameForObject(this));
+	}
+	
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright (c) 2014, Zothf, All rights reserved.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library.
+ */
+
+package net.minecraft.item;
+
+import net.minecraft.block.Block;
+import net.minecraft.nbt.NBTTagCompound;
+
+import com.google.common.base.Objects;
+
+/**
+ * Stand-in for the Minecraft item stack. Like the original, it does not override
+ * {@link #equals(Object)}, so that maps keyed by stacks compare them by identity.
+ */
+public final class ItemStack {
+	
+	public int stackSize;
+	public NBTTagCompound stackTagCompound;
+	private Item item;
+	private int itemDamage;
+	
+	public ItemStack(Block block) {
+		this(block, 1);
+	}
+	public ItemStack(Block block, int size) {
+		this(block, size, 0);
+	}
+	public ItemStack(Block block, int size, int metadata) {
+		this(Item.getItemFromBlock(block), size, metadata);
+	}
+	
+	public ItemStack(Item item) {
+		this(item, 1);
+	}
+	public ItemStack(Item item, int size) {
+		this(item, size, 0);
+	}
+	public ItemStack(Item item, int size, int metadata) {
+		this.item = item;
+		this.stackSize = size;
+		this.itemDamage = metadata < 0 ? 0 : metadata;
+	}
+	
+	public Item getItem() {
+		return item;
+	}
+	
+	public int getItemDamage() {
+		return itemDamage;
+	}
+	
+	public void setItemDamage(int metadata) {
+		itemDamage = metadata < 0 ? 0 : metadata;
+	}
+	
+	public ItemStack copy() {
+		ItemStack ret = new ItemStack(item, stackSize, itemDamage);
+		if (stackTagCompound != null)
+			ret.stackTagCompound = (NBTTagCompound) stackTagCompound.copy();
+		return ret;
+	}
+	
+	public static ItemStack copyItemStack(ItemStack item) {
+		return item == null ? null : item.copy();
+	}
+	
+	public boolean hasTagCompound() {
+		return stackTagCompound != null;
+	}
+	
+	public NBTTagCompound getTagCompound() {
+		return stackTagCompound;
+	}
+	
+	public void setTagCompound(NBTTagCompound tag) {
+		stackTagCompound = tag;
+	}
+	
+	public boolean isItemEqual(ItemStack other) {
+		return other != null && item == other.item && itemDamage == other.itemDamage;
+	}
+	
+	public static boolean areItemStacksEqual(ItemStack a, ItemStack b) {
+		return a == null ? b == null : b != null && a.stackSize == b.stackSize
+				&& a.isItemEqual(b) && areItemStackTagsEqual(a, b);
+	}
+	
+	public static boolean areItemStackTagsEqual(ItemStack a, ItemStack b) {
+		return a == null ? b == null : b != null && Objects.equal(a.stackTagCompound, b.stackTagCompound);
+	}
+	
+	@Override public String toString() {
+		return stackSize + "x" + item + "@" + itemDamage;
+	}
+	
+}
@@ -0,0 +1,54 @@
+/*
+ * Copyright (c) 2014, Zothf, All rights reserved.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library.
+ */
+
+package net.minecraft.item.crafting;
+
+import java.util.List;
+
+import net.minecraft.inventory.InventoryCrafting;
+import net.minecraft.item.ItemStack;
+import net.minecraft.world.World;
+
+import com.google.common.collect.Lists;
+
+/**
+ * Stand-in for the Minecraft crafting manager, holding its recipes in the same field as the
+ * original, and starting with none.
+ */
+public class CraftingManager {
+	
+	private static final CraftingManager instance = new CraftingManager();
+	
+	private List<IRecipe> recipes = Lists.newArrayList();
+	
+	public static CraftingManager getInstance() {
+		return instance;
+	}
+	
+	@SuppressWarnings("rawtypes")
+	public List getRecipeList() {
+		return recipes;
+	}
+	
+	public ItemStack findMatchingRecipe(InventoryCrafting grid, World world) {
+		for (IRecipe r : recipes)
+			if (r.matches(grid, world))
+				return r.getCraftingResult(grid);
+		return null;
+	}
+	
+}
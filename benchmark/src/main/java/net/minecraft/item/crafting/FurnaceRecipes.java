@@ -0,0 +1,71 @@
+/*
+ * Copyright (c) 2014, Zothf, All rights reserved.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library.
+ */
+
+package net.minecraft.item.crafting;
+
+import java.util.Map;
+import java.util.Map.Entry;
+
+import net.minecraft.item.ItemStack;
+
+import com.google.common.collect.Maps;
+
+/**
+ * Stand-in for the Minecraft smelting recipes. Like the original, the maps are keyed by stacks
+ * compared by identity, and are searched entry by entry.
+ */
+public class FurnaceRecipes {
+	
+	private static final FurnaceRecipes smeltingBase = new FurnaceRecipes();
+	
+	private Map<ItemStack, ItemStack> smeltingList = Maps.newHashMap();
+	private Map<ItemStack, Float> experienceList = Maps.newHashMap();
+	
+	public static FurnaceRecipes smelting() {
+		return smeltingBase;
+	}
+	
+	public void func_151394_a(ItemStack input, ItemStack output, float experience) {
+		smeltingList.put(input, output);
+		experienceList.put(output, experience);
+	}
+	
+	public ItemStack getSmeltingResult(ItemStack input) {
+		for (Entry<ItemStack, ItemStack> entry : smeltingList.entrySet())
+			if (func_151397_a(input, entry.getKey()))
+				return entry.getValue();
+		return null;
+	}
+	
+	private boolean func_151397_a(ItemStack actual, ItemStack expected) {
+		return expected.getItem() == actual.getItem()
+				&& (expected.getItemDamage() == 32767 || expected.getItemDamage() == actual.getItemDamage());
+	}
+	
+	@SuppressWarnings("rawtypes")
+	public Map getSmeltingList() {
+		return smeltingList;
+	}
+	
+	public float func_151398_b(ItemStack output) {
+		for (Entry<ItemStack, Float> entry : experienceList.entrySet())
+			if (func_151397_a(output, entry.getKey()))
+				return entry.getValue();
+		return 0;
+	}
+	
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright (c) 2014, Zothf, All rights reserved.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library.
+ */
+
+package net.minecraft.item.crafting;
+
+import net.minecraft.inventory.InventoryCrafting;
+import net.minecraft.item.ItemStack;
+import net.minecraft.world.World;
+import net.minecraftforge.oredict.OreDictionary;
+
+/**
+ * Stand-in for the vanilla shaped recipe, matching the grid as the original does.
+ */
+public class ShapedRecipes implements IRecipe {
+	
+	public final int recipeWidth;
+	public final int recipeHeight;
+	public final ItemStack[] recipeItems;
+	private ItemStack recipeOutput;
+	
+	public ShapedRecipes(int width, int height, ItemStack[] items, ItemStack output) {
+		recipeWidth = width;
+		recipeHeight = height;
+		recipeItems = items;
+		recipeOutput = output;
+	}
+	
+	@Override public ItemStack getRecipeOutput() {
+		return recipeOutput;
+	}
+	
+	@Override public boolean matches(InventoryCrafting grid, World world) {
+		for (int x = 0; x <= 3 - recipeWidth; x++)
+			for (int y = 0; y <= 3 - recipeHeight; y++)
+				if (checkMatch(grid, x, y, true) || checkMatch(grid, x, y, false))
+					return true;
+		return false;
+	}
+	
+	private boolean checkMatch(InventoryCrafting grid, int x, int y, boolean mirrored) {
+		for (int i = 0; i < 3; i++)
+			for (int j = 0; j < 3; j++) {
+				int u = i - x, v = j - y;
+				ItemStack expected = null;
+				if (u >= 0 && v >= 0 && u < recipeWidth && v < recipeHeight)
+					expected = recipeItems[mirrored ? recipeWidth - u - 1 + v * recipeWidth : u + v * recipeWidth];
+				
+				ItemStack actual = grid.getStackInRowAndColumn(i, j);
+				if (expected == null ? actual != null : !OreDictionary.itemMatches(expected, actual, false))
+					return false;
+			}
+		return true;
+	}
+	
+	@Override public ItemStack getCraftingResult(InventoryCrafting grid) {
+		return recipeOutput.copy();
+	}
+	
+	@Override public int getRecipeSize() {
+		return recipeWidth * recipeHeight;
+	}
+	
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright (c) 2014, Zothf, All rights reserved.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library.
+ */
+
+package net.minecraft.item.crafting;
+
+import java.util.List;
+
+import net.minecraft.inventory.InventoryCrafting;
+import net.minecraft.item.ItemStack;
+import net.minecraft.world.World;
+import net.minecraftforge.oredict.OreDictionary;
+
+import com.google.common.collect.Lists;
+
+/**
+ * Stand-in for the vanilla shapeless recipe, matching the grid as the original does.
+ */
+public class ShapelessRecipes implements IRecipe {
+	
+	@SuppressWarnings("rawtypes")
+	public final List recipeItems;
+	private final ItemStack recipeOutput;
+	
+	@SuppressWarnings("rawtypes")
+	public ShapelessRecipes(ItemStack output, List items) {
+		recipeOutput = output;
+		recipeItems = items;
+	}
+	
+	@Override public ItemStack getRecipeOutput() {
+		return recipeOutput;
+	}
+	
+	@SuppressWarnings("unchecked")
+	@Override public boolean matches(InventoryCrafting grid, World world) {
+		List<ItemStack> left = Lists.newArrayList(recipeItems);
+		
+		for (int i = 0; i < grid.getSizeInventory(); i++) {
+			ItemStack actual = grid.getStackInSlot(i);
+			if (actual == null)
+				continue;
+			
+			boolean found = false;
+			for (ItemStack expected : left)
+				if (OreDictionary.itemMatches(expected, actual, false)) {
+					found = true;
+					left.remove(expected);
+					break;
+				}
+			if (!found)
+				return false;
+		}
+		
+		return left.isEmpty();
+	}
+	
+	@Override public ItemStack getCraftingResult(InventoryCrafting grid) {
+		return recipeOutput.copy();
+	}
+	
+	@Override public int getRecipeSize() {
+		return recipeItems.size();
+	}
+	
+}
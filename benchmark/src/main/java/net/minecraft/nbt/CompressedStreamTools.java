@@ -0,0 +1,37 @@
+/*
+ * Copyright (c) 2014, Zothf, All rights reserved.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library.
+ */
+
+package net.minecraft.nbt;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Stand-in for the Minecraft NBT serializer. The benchmarks do not store tags, so it only fails.
+ */
+public class CompressedStreamTools {
+	
+	public static NBTTagCompound read(DataInput in) throws IOException {
+		throw new IOException("NBT serialization is not available in the benchmarks");
+	}
+	
+	public static void write(NBTTagCompound tag, DataOutput out) throws IOException {
+		throw new IOException("NBT serialization is not available in the benchmarks");
+	}
+	
+}
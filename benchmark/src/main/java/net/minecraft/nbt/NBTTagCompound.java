@@ -0,0 +1,80 @@
+/*
+ * Copyright (c) 2014, Zothf, All rights reserved.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library.
+ */
+
+package net.minecraft.nbt;
+
+import java.util.Map;
+import java.util.Map.Entry;
+
+import com.google.common.collect.Maps;
+
+/**
+ * Stand-in for the Minecraft NBT compound, holding its tags in the same field as the original.
+ */
+public class NBTTagCompound extends NBTBase {
+	
+	private Map<String, NBTBase> tagMap = Maps.newHashMap();
+	
+	public void setTag(String key, NBTBase value) {
+		tagMap.put(key, value);
+	}
+	
+	public NBTBase getTag(String key) {
+		return tagMap.get(key);
+	}
+	
+	public void setString(String key, String value) {
+		setTag(key, new NBTTagString(value));
+	}
+	
+	public String getString(String key) {
+		NBTBase ret = tagMap.get(key);
+		return ret instanceof NBTTagString ? ((NBTTagString) ret).func_150285_a_() : "";
+	}
+	
+	public boolean hasKey(String key) {
+		return tagMap.containsKey(key);
+	}
+	
+	public boolean hasNoTags() {
+		return tagMap.isEmpty();
+	}
+	
+	@Override public byte getId() {
+		return 10;
+	}
+	
+	@Override public NBTBase copy() {
+		NBTTagCompound ret = new NBTTagCompound();
+		for (Entry<String, NBTBase> entry : tagMap.entrySet())
+			ret.setTag(entry.getKey(), entry.getValue().copy());
+		return ret;
+	}
+	
+	@Override public boolean equals(Object obj) {
+		return super.equals(obj) && tagMap.equals(((NBTTagCompound) obj).tagMap);
+	}
+	
+	@Override public int hashCode() {
+		return super.hashCode() ^ tagMap.hashCode();
+	}
+	
+	@Override public String toString() {
+		return tagMap.toString();
+	}
+	
+}
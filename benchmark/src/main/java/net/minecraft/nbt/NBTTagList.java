@@ -0,0 +1,73 @@
+/*
+ * Copyright (c) 2014, Zothf, All rights reserved.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library.
+ */
+
+package net.minecraft.nbt;
+
+import java.util.List;
+
+import com.google.common.collect.Lists;
+
+/**
+ * Stand-in for the Minecraft NBT list, holding its tags in the same fields as the original.
+ */
+public class NBTTagList extends NBTBase {
+	
+	private List<NBTBase> tagList = Lists.newArrayList();
+	private byte tagType = 0;
+	
+	public void appendTag(NBTBase tag) {
+		if (tagType == 0)
+			tagType = tag.getId();
+		else if (tagType != tag.getId())
+			return;
+		tagList.add(tag);
+	}
+	
+	public int tagCount() {
+		return tagList.size();
+	}
+	
+	public int func_150303_d() {
+		return tagType;
+	}
+	
+	@Override public byte getId() {
+		return 9;
+	}
+	
+	@Override public NBTBase copy() {
+		NBTTagList ret = new NBTTagList();
+		ret.tagType = tagType;
+		for (NBTBase tag : tagList)
+			ret.tagList.add(tag.copy());
+		return ret;
+	}
+	
+	@Override public boolean equals(Object obj) {
+		return super.equals(obj) && tagType == ((NBTTagList) obj).tagType
+				&& tagList.equals(((NBTTagList) obj).tagList);
+	}
+	
+	@Override public int hashCode() {
+		return super.hashCode() ^ tagList.hashCode();
+	}
+	
+	@Override public String toString() {
+		return tagList.toString();
+	}
+	
+}
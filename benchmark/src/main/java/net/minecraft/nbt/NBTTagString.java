@@ -0,0 +1,55 @@
+/*
+ * Copyright (c) 2014, Zothf, All rights reserved.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library.
+ */
+
+package net.minecraft.nbt;
+
+/**
+ * Stand-in for the Minecraft NBT string.
+ */
+public class NBTTagString extends NBTBase {
+	
+	private String data;
+	
+	public NBTTagString(String data) {
+		this.data = data;
+	}
+	
+	public String func_150285_a_() {
+		return data;
+	}
+	
+	@Override public byte getId() {
+		return 8;
+	}
+	
+	@Override public NBTBase copy() {
+		return new NBTTagString(data);
+	}
+	
+	@Override public boolean equals(Object obj) {
+		return super.equals(obj) && data.equals(((NBTTagString) obj).data);
+	}
+	
+	@Override public int hashCode() {
+		return super.hashCode() ^ data.hashCode();
+	}
+	
+	@Override public String toString() {
+		return "\"" + data + "\"";
+	}
+	
+}
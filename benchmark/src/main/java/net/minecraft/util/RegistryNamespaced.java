@@ -0,0 +1,71 @@
+/*
+ * Copyright (c) 2014, Zothf, All rights reserved.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library.
+ */
+
+package net.minecraft.util;
+
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+/**
+ * Stand-in for the Minecraft registry, mapping names and ids to objects.
+ */
+public class RegistryNamespaced {
+	
+	private final Map<String, Object> byName = Maps.newHashMap();
+	private final Map<Object, String> names = new IdentityHashMap<Object, String>();
+	private final Map<Object, Integer> ids = new IdentityHashMap<Object, Integer>();
+	private final List<Object> byId = Lists.newArrayList();
+	
+	public void addObject(int id, String name, Object object) {
+		while (byId.size() <= id)
+			byId.add(null);
+		byId.set(id, object);
+		ids.put(object, id);
+		putObject(name, object);
+	}
+	
+	public void putObject(String name, Object object) {
+		byName.put(name, object);
+		names.put(object, name);
+	}
+	
+	public Object getObject(String name) {
+		return byName.get(name);
+	}
+	
+	public String getNameForObject(Object object) {
+		return names.get(object);
+	}
+	
+	public boolean containsKey(String name) {
+		return byName.containsKey(name);
+	}
+	
+	public int getIDForObject(Object object) {
+		Integer ret = ids.get(object);
+		return ret == null ? -1 : ret;
+	}
+	
+	public Object getObjectForID(int id) {
+		return id >= 0 && id < byId.size() ? byId.get(id) : null;
+	}
+	
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright (c) 2014, Zothf, All rights reserved.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library.
+ */
+
+package net.minecraftforge.oredict;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import net.minecraft.item.Item;
+import net.minecraft.item.ItemStack;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+/**
+ * Stand-in for the Forge ore dictionary, holding the ores in the same fields as the original.
+ */
+public class OreDictionary {
+	
+	public static final int WILDCARD_VALUE = Short.MAX_VALUE;
+	
+	private static List<String> idToName = Lists.newArrayList();
+	private static Map<String, Integer> nameToId = Maps.newHashMap();
+	private static Map<Integer, ArrayList<ItemStack>> oreStacks = Maps.newHashMap();
+	
+	public static int getOreID(String name) {
+		Integer ret = nameToId.get(name);
+		if (ret == null) {
+			ret = idToName.size();
+			idToName.add(name);
+			nameToId.put(name, ret);
+			oreStacks.put(ret, new ArrayList<ItemStack>());
+		}
+		return ret;
+	}
+	
+	public static String getOreName(int id) {
+		return id >= 0 && id < idToName.size() ? idToName.get(id) : "Unknown";
+	}
+	
+	public static String[] getOreNames() {
+		return idToName.toArray(new String[idToName.size()]);
+	}
+	
+	public static ArrayList<ItemStack> getOres(String name) {
+		return getOres(getOreID(name));
+	}
+	
+	public static ArrayList<ItemStack> getOres(Integer id) {
+		ArrayList<ItemStack> ret = oreStacks.get(id);
+		if (ret == null)
+			oreStacks.put(id, ret = new ArrayList<ItemStack>());
+		return ret;
+	}
+	
+	public static void registerOre(String name, Item item) {
+		registerOre(name, new ItemStack(item, 1, WILDCARD_VALUE));
+	}
+	
+	public static void registerOre(String name, ItemStack item) {
+		getOres(name).add(item.copy());
+	}
+	
+	public static boolean itemMatches(ItemStack target, ItemStack input, boolean strict) {
+		if (input == null || target == null)
+			return input == target;
+		return target.getItem() == input.getItem() && (target.getItemDamage() == WILDCARD_VALUE && !strict
+				|| target.getItemDamage() == input.getItemDamage());
+	}
+	
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright (c) 2014, Zothf, All rights reserved.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library.
+ */
+
+package net.minecraftforge.oredict;
+
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+import net.minecraft.item.crafting.CraftingManager;
+import net.minecraft.item.crafting.IRecipe;
+import net.minecraft.item.crafting.ShapedRecipes;
+import net.minecraft.item.crafting.ShapelessRecipes;
+
+import com.google.common.collect.Maps;
+
+/**
+ * Stand-in for the Forge recipe sorter, putting the shaped recipes first and the larger recipes
+ * first within each category, without the ordering constraints of the original.
+ */
+public class RecipeSorter implements Comparator<IRecipe> {
+	
+	public enum Category {
+		UNKNOWN,
+		SHAPELESS,
+		SHAPED
+	}
+	
+	public static final RecipeSorter INSTANCE = new RecipeSorter();
+	
+	private static final Map<Class<?>, Category> categories = Maps.newHashMap();
+	
+	static {
+		categories.put(ShapedRecipes.class, Category.SHAPED);
+		categories.put(ShapedOreRecipe.class, Category.SHAPED);
+		categories.put(ShapelessRecipes.class, Category.SHAPELESS);
+		categories.put(ShapelessOreRecipe.class, Category.SHAPELESS);
+	}
+	
+	public static void register(String name, Class<?> recipe, Category category, String dependencies) {
+		categories.put(recipe, category);
+	}
+	
+	public static Category getCategory(IRecipe recipe) {
+		for (Class<?> c = recipe.getClass(); c != Object.class; c = c.getSuperclass()) {
+			Category ret = categories.get(c);
+			if (ret != null)
+				return ret;
+		}
+		return Category.UNKNOWN;
+	}
+	
+	@SuppressWarnings("unchecked")
+	public static void sortCraftManager() {
+		Collections.sort((List<IRecipe>) CraftingManager.getInstance().getRecipeList(), INSTANCE);
+	}
+	
+	@Override public int compare(IRecipe o1, IRecipe o2) {
+		Category c1 = getCategory(o1), c2 = getCategory(o2);
+		if (c1 == Category.SHAPELESS && c2 == Category.SHAPED)
+			return 1;
+		if (c1 == Category.SHAPED && c2 == Category.SHAPELESS)
+			return -1;
+		return o2.getRecipeSize() - o1.getRecipeSize();
+	}
+	
+}
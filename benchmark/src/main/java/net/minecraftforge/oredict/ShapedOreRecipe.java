@@ -0,0 +1,117 @@
+/*
+ * Copyright (c) 2014, Zothf, All rights reserved.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library.
+ */
+
+package net.minecraftforge.oredict;
+
+import java.util.Map;
+
+import net.minecraft.block.Block;
+import net.minecraft.inventory.InventoryCrafting;
+import net.minecraft.item.Item;
+import net.minecraft.item.ItemStack;
+import net.minecraft.item.crafting.IRecipe;
+import net.minecraft.world.World;
+
+import com.google.common.collect.Maps;
+
+/**
+ * Stand-in for the Forge shaped ore recipe, holding its inputs in the same fields as the original.
+ * The arguments are an optional mirrored flag, the rows of the shape, then pairs of a symbol and
+ * an item, a block, a stack or an ore name.
+ */
+public class ShapedOreRecipe implements IRecipe {
+	
+	private ItemStack output = null;
+	private Object[] input = null;
+	private int width = 0;
+	private int height = 0;
+	private boolean mirrored = true;
+	
+	public ShapedOreRecipe(Block result, Object... recipe) {
+		this(new ItemStack(result), recipe);
+	}
+	public ShapedOreRecipe(Item result, Object... recipe) {
+		this(new ItemStack(result), recipe);
+	}
+	public ShapedOreRecipe(ItemStack result, Object... recipe) {
+		output = result.copy();
+		
+		int i = 0;
+		if (i < recipe.length && recipe[i] instanceof Boolean)
+			mirrored = (Boolean) recipe[i++];
+		
+		StringBuilder shape = new StringBuilder();
+		for (; i < recipe.length && recipe[i] instanceof String; i++) {
+			String row = (String) recipe[i];
+			shape.append(row);
+			width = row.length();
+			height++;
+		}
+		
+		Map<Character, Object> symbols = Maps.newHashMap();
+		for (; i + 1 < recipe.length; i += 2)
+			symbols.put((Character) recipe[i], ShapelessOreRecipe.toInput(recipe[i + 1]));
+		
+		input = new Object[width * height];
+		for (int j = 0; j < input.length; j++)
+			input[j] = symbols.get(shape.charAt(j));
+	}
+	
+	@Override public ItemStack getCraftingResult(InventoryCrafting grid) {
+		return output.copy();
+	}
+	
+	@Override public int getRecipeSize() {
+		return input.length;
+	}
+	
+	@Override public ItemStack getRecipeOutput() {
+		return output;
+	}
+	
+	@Override public boolean matches(InventoryCrafting grid, World world) {
+		for (int x = 0; x <= 3 - width; x++)
+			for (int y = 0; y <= 3 - height; y++)
+				if (checkMatch(grid, x, y, false) || mirrored && checkMatch(grid, x, y, true))
+					return true;
+		return false;
+	}
+	
+	private boolean checkMatch(InventoryCrafting grid, int x, int y, boolean mirror) {
+		for (int i = 0; i < 3; i++)
+			for (int j = 0; j < 3; j++) {
+				int u = i - x, v = j - y;
+				Object expected = null;
+				if (u >= 0 && v >= 0 && u < width && v < height)
+					expected = input[mirror ? width - u - 1 + v * width : u + v * width];
+				
+				if (!ShapelessOreRecipe.inputMatches(expected, grid.getStackInRowAndColumn(i, j)))
+					return false;
+			}
+		return true;
+	}
+	
+	public ShapedOreRecipe setMirrored(boolean mirror) {
+		mirrored = mirror;
+		return this;
+	}
+	
+	public Object[] getInput() {
+		return input;
+	}
+	
+}
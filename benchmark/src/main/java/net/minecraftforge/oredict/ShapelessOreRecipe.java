@@ -0,0 +1,113 @@
+/*
+ * Copyright (c) 2014, Zothf, All rights reserved.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library.
+ */
+
+package net.minecraftforge.oredict;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import net.minecraft.block.Block;
+import net.minecraft.inventory.InventoryCrafting;
+import net.minecraft.item.Item;
+import net.minecraft.item.ItemStack;
+import net.minecraft.item.crafting.IRecipe;
+import net.minecraft.world.World;
+
+/**
+ * Stand-in for the Forge shapeless ore recipe, holding its inputs in the same fields as the
+ * original. The arguments are items, blocks, stacks or ore names.
+ */
+public class ShapelessOreRecipe implements IRecipe {
+	
+	private ItemStack output = null;
+	private ArrayList<Object> input = new ArrayList<Object>();
+	
+	public ShapelessOreRecipe(Block result, Object... recipe) {
+		this(new ItemStack(result), recipe);
+	}
+	public ShapelessOreRecipe(Item result, Object... recipe) {
+		this(new ItemStack(result), recipe);
+	}
+	public ShapelessOreRecipe(ItemStack result, Object... recipe) {
+		output = result.copy();
+		for (Object in : recipe)
+			input.add(toInput(in));
+	}
+	
+	static Object toInput(Object in) {
+		if (in instanceof ItemStack)
+			return ((ItemStack) in).copy();
+		if (in instanceof Item)
+			return new ItemStack((Item) in);
+		if (in instanceof Block)
+			return new ItemStack((Block) in, 1, OreDictionary.WILDCARD_VALUE);
+		if (in instanceof String)
+			return OreDictionary.getOres((String) in);
+		throw new IllegalArgumentException("Invalid shapeless ore recipe input: " + in);
+	}
+	
+	static boolean inputMatches(Object expected, ItemStack actual) {
+		if (expected instanceof ItemStack)
+			return OreDictionary.itemMatches((ItemStack) expected, actual, false);
+		if (expected instanceof List) {
+			for (Object ore : (List<?>) expected)
+				if (OreDictionary.itemMatches((ItemStack) ore, actual, false))
+					return true;
+			return false;
+		}
+		return actual == null;
+	}
+	
+	@Override public int getRecipeSize() {
+		return input.size();
+	}
+	
+	@Override public ItemStack getRecipeOutput() {
+		return output;
+	}
+	
+	@Override public ItemStack getCraftingResult(InventoryCrafting grid) {
+		return output.copy();
+	}
+	
+	@Override public boolean matches(InventoryCrafting grid, World world) {
+		List<Object> left = new ArrayList<Object>(input);
+		
+		for (int i = 0; i < grid.getSizeInventory(); i++) {
+			ItemStack actual = grid.getStackInSlot(i);
+			if (actual == null)
+				continue;
+			
+			boolean found = false;
+			for (Object expected : left)
+				if (inputMatches(expected, actual)) {
+					found = true;
+					left.remove(expected);
+					break;
+				}
+			if (!found)
+				return false;
+		}
+		
+		return left.isEmpty();
+	}
+	
+	public ArrayList<Object> getInput() {
+		return input;
+	}
+	
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright (c) 2014, Zothf, All rights reserved.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library.
+ */
+
+package zotmc.collect.benchmark;
+
+import static net.minecraft.item.crafting.FurnaceRecipes.smelting;
+import static zotmc.collect.recipe.StackInfos.asInfo;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import net.minecraft.item.Item;
+import net.minecraft.item.ItemStack;
+import net.minecraftforge.oredict.OreDictionary;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import zotmc.collect.recipe.Furnaces;
+import zotmc.collect.recipe.StackInfo;
+
+/**
+ * Point lookups and puts on the furnace maps of {@link Furnaces}, next to the lookup of the
+ * smelting recipes themselves.
+ * 
+ * @author zot
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+public class FurnacesBenchmark {
+	
+	@Param({"100", "1000", "10000"})
+	public int smeltings;
+	
+	private ItemStack hit, output;
+	private StackInfo miss, result;
+	
+	@Setup public void setup() {
+		List<Item> items = SyntheticRegistry.smelting(smeltings, 42).items();
+		hit = new ItemStack(items.get(smeltings / 2), 1, OreDictionary.WILDCARD_VALUE);
+		miss = asInfo(new ItemStack(items.get(smeltings), 1, OreDictionary.WILDCARD_VALUE));
+		output = smelting().getSmeltingResult(hit);
+		result = Furnaces.recipes().getValue(hit);
+	}
+	
+	@Benchmark public ItemStack smeltingResult() {
+		return smelting().getSmeltingResult(hit);
+	}
+	
+	@Benchmark public StackInfo recipesGet() {
+		return Furnaces.recipes().getValue(hit);
+	}
+	
+	@Benchmark public boolean recipesContainsMiss() {
+		return Furnaces.recipes().containsKey(miss);
+	}
+	
+	@Benchmark public StackInfo recipesPut() {
+		return Furnaces.recipes().put(hit, result.asItemStack());
+	}
+	
+	@Benchmark public Float experienceGet() {
+		return Furnaces.experience().getValue(output);
+	}
+	
+}
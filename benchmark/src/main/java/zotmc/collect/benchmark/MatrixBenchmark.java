@@ -0,0 +1,93 @@
+/*
+ * Copyright (c) 2014, Zothf, All rights reserved.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library.
+ */
+
+package zotmc.collect.benchmark;
+
+import static zotmc.collect.recipe.RecipeElement.inShape;
+
+import java.util.concurrent.TimeUnit;
+
+import net.minecraft.item.Item;
+import net.minecraft.item.ItemStack;
+import net.minecraft.item.crafting.ShapedRecipes;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import zotmc.collect.Matrix;
+import zotmc.collect.Matrixs;
+import zotmc.collect.recipe.BasicRecipeView;
+import zotmc.collect.recipe.RecipeElement;
+
+/**
+ * The equality and the hash code of the matrices of recipe elements, between the ones given by
+ * {@link RecipeElement#inShape(String...)} and the shaped inputs of recipe views.
+ * 
+ * @author zot
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+public class MatrixBenchmark {
+	
+	private Matrix<RecipeElement> shape, sameShape, view, mirrored;
+	
+	@Setup public void setup() {
+		SyntheticRegistry registry = SyntheticRegistry.crafting(0, 42);
+		Item a = registry.randomItem(), b = registry.randomItem(), c = registry.randomItem();
+		
+		shape = inShape("ab ", "bcb", " cc").let('a', a).let('b', b).let('c', c);
+		sameShape = inShape("ab ", "bcb", " cc").let('a', a).let('b', b).let('c', c);
+		
+		ItemStack sa = new ItemStack(a), sb = new ItemStack(b), sc = new ItemStack(c);
+		view = BasicRecipeView.STRICT_MATCHING.apply(new ShapedRecipes(3, 3,
+				new ItemStack[] {sa, sb, null, sb, sc, sb, null, sc, sc}, new ItemStack(a))).getShapedInput();
+		mirrored = Matrixs.horizontalMirror(sameShape);
+	}
+	
+	@Benchmark public boolean equalShapes() {
+		return shape.equals(sameShape);
+	}
+	
+	@Benchmark public boolean shapeEqualsView() {
+		return shape.equals(view);
+	}
+	
+	@Benchmark public boolean shapeEqualsMirrored() {
+		return shape.equals(mirrored);
+	}
+	
+	@Benchmark public int shapeHashCode() {
+		return shape.hashCode();
+	}
+	
+	@Benchmark public int viewHashCode() {
+		return view.hashCode();
+	}
+	
+}
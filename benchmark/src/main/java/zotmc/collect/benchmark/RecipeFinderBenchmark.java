@@ -0,0 +1,94 @@
+/*
+ * Copyright (c) 2014, Zothf, All rights reserved.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library.
+ */
+
+package zotmc.collect.benchmark;
+
+import static zotmc.collect.recipe.RecipeElement.equalTo;
+
+import java.util.concurrent.TimeUnit;
+
+import net.minecraft.item.Item;
+import net.minecraft.item.ItemStack;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import zotmc.collect.recipe.RecipeFinder;
+
+import com.google.common.base.Predicates;
+
+/**
+ * The queries and the changes of the {@link RecipeFinder} on synthetic recipe lists. The changes are
+ * made in forks that are never merged, so that every invocation sees the same list.
+ * 
+ * @author zot
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+public class RecipeFinderBenchmark {
+	
+	@Param({"1000", "10000", "100000"})
+	public int recipes;
+	
+	private Item item, other;
+	private String ore;
+	
+	@Setup public void setup() {
+		SyntheticRegistry registry = SyntheticRegistry.crafting(recipes, 42);
+		item = registry.randomItem();
+		other = registry.randomItem();
+		ore = registry.randomOre();
+		
+		// build the index once, as the first script of a launch does
+		RecipeFinder.using(item).getRecipes();
+	}
+	
+	@Benchmark public int forResult() {
+		return RecipeFinder.forResult(item).getRecipes().size();
+	}
+	
+	@Benchmark public int usingItem() {
+		return RecipeFinder.using(item).getRecipes().size();
+	}
+	
+	@Benchmark public int usingOre() {
+		return RecipeFinder.using(ore).getRecipes().size();
+	}
+	
+	@Benchmark public int replace() {
+		return RecipeFinder.fork().using(item).replace(equalTo(item), other).getRecipes().size();
+	}
+	
+	@Benchmark public int removeDuplicates() {
+		return RecipeFinder.fork().forResult(Predicates.<ItemStack>alwaysTrue())
+				.removeDuplicates().getRecipes().size();
+	}
+	
+}
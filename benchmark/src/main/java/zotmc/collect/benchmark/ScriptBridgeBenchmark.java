@@ -0,0 +1,105 @@
+/*
+ * Copyright (c) 2014, Zothf, All rights reserved.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library.
+ */
+
+package zotmc.collect.benchmark;
+import java.util.concurrent.TimeUnit;
+
+import javax.script.Invocable;
+import javax.script.ScriptEngine;
+import javax.script.ScriptEngineManager;
+import javax.script.ScriptException;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Calls of the script helper {@code i(x, y, z, x)} from the JavaScript engine of the running JDK.
+ * {@code adaptArgs} is the helper of the Rhino prelude and {@code bound} the one of the Nashorn
+ * prelude. {@code javaTo}, the helper Nashorn had before, runs on Nashorn only.
+ * 
+ * @author zot
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+public class ScriptBridgeBenchmark {
+	
+	private static final int CALLS = 1000;
+	
+	private Invocable script;
+	
+	@Setup public void setup() throws ScriptException {
+		ScriptEngine se = new ScriptEngineManager().getEngineByName("JavaScript");
+		boolean nashorn = se.getFactory().getEngineName().contains("Nashorn");
+		
+		SyntheticRegistry registry = SyntheticRegistry.crafting(0, 42);
+		se.put("x", registry.randomItem());
+		se.put("y", registry.randomItem());
+		se.put("z", registry.randomItem());
+		
+		se.eval((nashorn ? "load('nashorn:mozilla_compat.js');\n" : "")
+				+ "importClass(Packages.zotmc.collect.forge.McCollect);\n"
+				+ "importClass(Packages.net.minecraft.item.Item);\n"
+				+ "function adaptArgs() {\n"
+				+ "  return McCollect.adaptArgs(" + (nashorn ? "Item.class" : "Item") + ",\n"
+				+ "      Array.prototype.slice.call(arguments));\n"
+				+ "}\n"
+				+ "function javaTo() {\n"
+				+ "  return Java.to(arguments, 'net.minecraft.item.Item[]');\n"
+				+ "}\n"
+				+ "bound = McCollect.items;\n"
+				+ "function run(i) {\n"
+				+ "  var ret;\n"
+				+ "  for (var k = 0; k < " + CALLS + "; k++)\n"
+				+ "    ret = i(x, y, z, x);\n"
+				+ "  return ret;\n"
+				+ "}\n");
+		script = (Invocable) se;
+	}
+	
+	private Object run(String helper) throws ScriptException, NoSuchMethodException {
+		return script.invokeFunction("run", ((ScriptEngine) script).get(helper));
+	}
+	
+	@Benchmark @OperationsPerInvocation(CALLS)
+	public Object adaptArgs() throws ScriptException, NoSuchMethodException {
+		return run("adaptArgs");
+	}
+	
+	@Benchmark @OperationsPerInvocation(CALLS)
+	public Object javaTo() throws ScriptException, NoSuchMethodException {
+		return run("javaTo");
+	}
+	
+	@Benchmark @OperationsPerInvocation(CALLS)
+	public Object bound() throws ScriptException, NoSuchMethodException {
+		return run("bound");
+	}
+	
+}
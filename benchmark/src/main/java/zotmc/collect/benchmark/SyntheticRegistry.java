@@ -0,0 +1,189 @@
+/*
+ * Copyright (c) 2014, Zothf, All rights reserved.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library.
+ */
+
+package zotmc.collect.benchmark;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import net.minecraft.item.Item;
+import net.minecraft.item.ItemStack;
+import net.minecraft.item.crafting.CraftingManager;
+import net.minecraft.item.crafting.FurnaceRecipes;
+import net.minecraft.item.crafting.IRecipe;
+import net.minecraft.item.crafting.ShapedRecipes;
+import net.minecraft.item.crafting.ShapelessRecipes;
+import net.minecraftforge.oredict.OreDictionary;
+import net.minecraftforge.oredict.ShapedOreRecipe;
+import net.minecraftforge.oredict.ShapelessOreRecipe;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+
+import cpw.mods.fml.common.ObfuscationReflectionHelper;
+
+/**
+ * Fills the stand-in registries with items, ores, crafting and smelting recipes drawn from a seeded
+ * random source, so that the same arguments always give the same registries. Two in five crafting
+ * recipes are vanilla shaped, three in ten vanilla shapeless, one in five shaped ore and one in ten
+ * shapeless ore recipes, and one in twenty is a copy of an earlier one.
+ * 
+ * @author zot
+ */
+public class SyntheticRegistry {
+	
+	private static final int FIRST_ID = 4096;
+	private static final String[] ROWS = {"ab", "ba", "a a", "aba", "bcb", " c "};
+	
+	private final Random rand;
+	private final List<Item> items;
+	private final List<String> ores;
+	
+	private SyntheticRegistry(long seed, int itemCount, int oreCount) {
+		rand = new Random(seed);
+		
+		ImmutableList.Builder<Item> items = ImmutableList.builder();
+		for (int i = 0; i < itemCount; i++)
+			items.add(item(i));
+		this.items = items.build();
+		
+		ImmutableList.Builder<String> ores = ImmutableList.builder();
+		for (int i = 0; i < oreCount; i++) {
+			String name = "oreBench" + i;
+			List<ItemStack> stacks = OreDictionary.getOres(name);
+			stacks.clear();
+			for (int j = 0; j < 4; j++)
+				stacks.add(new ItemStack(randomItem(), 1, OreDictionary.WILDCARD_VALUE));
+			ores.add(name);
+		}
+		this.ores = ores.build();
+	}
+	
+	private static Item item(int i) {
+		String name = "bench:item" + i;
+		Item ret = (Item) Item.itemRegistry.getObject(name);
+		if (ret == null)
+			Item.itemRegistry.addObject(FIRST_ID + i, name, ret = new Item());
+		return ret;
+	}
+	
+	/**
+	 * Replaces the crafting recipes with the given number of synthetic ones, drawn from about a
+	 * tenth as many items.
+	 */
+	public static SyntheticRegistry crafting(int recipes, long seed) {
+		SyntheticRegistry ret = new SyntheticRegistry(seed, Math.max(64, recipes / 10), 16);
+		
+		List<IRecipe> list = Lists.newArrayListWithCapacity(recipes);
+		for (int i = 0; i < recipes; i++)
+			list.add(i >= 20 && ret.rand.nextInt(20) == 0 ?
+					list.get(ret.rand.nextInt(i)) : ret.randomRecipe());
+		
+		@SuppressWarnings("unchecked")
+		List<IRecipe> recipeList = CraftingManager.getInstance().getRecipeList();
+		recipeList.clear();
+		recipeList.addAll(list);
+		return ret;
+	}
+	
+	/**
+	 * Replaces the smelting recipes with the given number of synthetic ones, each with its own input
+	 * item of any metadata, as the vanilla ones are registered.
+	 */
+	public static SyntheticRegistry smelting(int recipes, long seed) {
+		SyntheticRegistry ret = new SyntheticRegistry(seed, recipes + 64, 0);
+		
+		FurnaceRecipes.smelting().getSmeltingList().clear();
+		ObfuscationReflectionHelper.<Map<ItemStack, Float>, FurnaceRecipes>getPrivateValue(
+				FurnaceRecipes.class, FurnaceRecipes.smelting(), "experienceList").clear();
+		for (int i = 0; i < recipes; i++)
+			FurnaceRecipes.smelting().func_151394_a(new ItemStack(ret.items.get(i), 1, OreDictionary.WILDCARD_VALUE),
+					new ItemStack(ret.items.get(recipes + ret.rand.nextInt(64))), ret.rand.nextFloat());
+		return ret;
+	}
+	
+	
+	
+	public List<Item> items() {
+		return items;
+	}
+	
+	public List<String> ores() {
+		return ores;
+	}
+	
+	public Item randomItem() {
+		return items.get(rand.nextInt(items.size()));
+	}
+	
+	public String randomOre() {
+		return ores.get(rand.nextInt(ores.size()));
+	}
+	
+	private ItemStack randomOutput() {
+		return new ItemStack(randomItem(), 1 + rand.nextInt(4), rand.nextInt(4) == 0 ? rand.nextInt(16) : 0);
+	}
+	
+	private IRecipe randomRecipe() {
+		int kind = rand.nextInt(10);
+		
+		if (kind < 4) {
+			String[] shape = randomShape();
+			int w = shape[0].length(), h = shape.length;
+			ItemStack[] a = {new ItemStack(randomItem()), new ItemStack(randomItem()), new ItemStack(randomItem())};
+			
+			ItemStack[] in = new ItemStack[w * h];
+			for (int j = 0; j < h; j++)
+				for (int i = 0; i < w; i++) {
+					char c = shape[j].charAt(i);
+					in[i + j * w] = c == ' ' ? null : a[c - 'a'];
+				}
+			return new ShapedRecipes(w, h, in, randomOutput());
+		}
+		
+		if (kind < 7) {
+			List<ItemStack> in = Lists.newArrayList();
+			for (int i = 1 + rand.nextInt(4); i > 0; i--)
+				in.add(new ItemStack(randomItem(), 1, rand.nextInt(8) == 0 ? OreDictionary.WILDCARD_VALUE : 0));
+			return new ShapelessRecipes(randomOutput(), in);
+		}
+		
+		if (kind < 9) {
+			String[] shape = randomShape();
+			return new ShapedOreRecipe(randomOutput(), rand.nextBoolean(), shape[0], shape[1],
+					'a', randomOre(), 'b', randomItem(), 'c', randomOre());
+		}
+		
+		List<Object> in = Lists.newArrayList();
+		for (int i = 1 + rand.nextInt(4); i > 0; i--)
+			in.add(rand.nextBoolean() ? randomOre() : randomItem());
+		return new ShapelessOreRecipe(randomOutput(), in.toArray());
+	}
+	
+	private String[] randomShape() {
+		List<String> rows = Lists.newArrayList(ROWS);
+		Collections.shuffle(rows, rand);
+		String first = rows.get(0);
+		for (String s : rows)
+			if (s != first && s.length() == first.length())
+				return new String[] {first, s};
+		throw new AssertionError();
+	}
+	
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright (c) 2014, Zothf, All rights reserved.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library.
+ */
+
+package zotmc.collect.forge;
+
+import java.io.File;
+
+import net.minecraftforge.common.config.Configuration;
+
+/**
+ * The options read from {@code config/mccollect.cfg}.
+ * 
+ * @author zot
+ */
+class Config {
+	
+	private static final String SCRIPTS = "scripts";
+	
+	/**
+	 * Whether all scripts are run by one script engine, each in a scope of its own.
+	 */
+	final boolean sharedEngine;
+	/**
+	 * Whether Nashorn keeps the classes compiled from the scripts on disk across launches.
+	 */
+	final boolean codeCache;
+	/**
+	 * Whether the scripts declaring that they touch different things are run concurrently.
+	 * Off by default, as only the recipe list is forked for each of them.
+	 */
+	final boolean parallelScripts;
+	/**
+	 * Whether the time and the work taken by each script are reported.
+	 */
+	final boolean profileScripts;
+	/**
+	 * Whether the changes made by the scripts are stored and replayed while nothing has changed.
+	 * Off by default, as the scripts may do more than what a snapshot can replay.
+	 */
+	final boolean snapshot;
+	
+	Config(File file) {
+		Configuration config = new Configuration(file);
+		config.load();
+		
+		sharedEngine = config.get(SCRIPTS, "sharedEngine", true,
+				"Run all the scripts with one script engine set up once, each in a scope of its own. "
+				+ "Disable to set up a new engine for every script.")
+				.getBoolean(true);
+		codeCache = config.get(SCRIPTS, "codeCache", true,
+				"Keep the classes compiled from the scripts in config/mccollect/codecache, "
+				+ "so that they are not compiled again on the next launch. Nashorn and sharedEngine only.")
+				.getBoolean(true);
+		parallelScripts = config.get(SCRIPTS, "parallelScripts", false,
+				"Run the scripts in the order given by their \"// @requires\" headers, and run the ones "
+				+ "declaring disjoint \"// @touches\" headers concurrently, each with an engine of its own. "
+				+ "Only the crafting recipes are kept apart, and the furnace and ore dictionary changes made "
+				+ "through McCollect are taken in turns, so enable only if your scripts do nothing else. "
+				+ "sharedEngine only.")
+				.getBoolean(false);
+		profileScripts = config.get(SCRIPTS, "profileScripts", true,
+				"Log the time, the recipe queries and the changes of each script, slowest first, "
+				+ "and write them to config/mccollect/profile.csv.")
+				.getBoolean(true);
+		snapshot = config.get(SCRIPTS, "snapshot", false,
+				"Store the changes made by the scripts to the crafting recipes in config/mccollect/snapshot.bin, "
+				+ "and replay them instead of running the scripts while the scripts, the mods and the recipes "
+				+ "are unchanged. Anything else the scripts do is then skipped, so enable only if your scripts "
+				+ "do nothing but change recipes through McCollect. Never used with scripts written in Java.")
+				.getBoolean(false);
+		
+		if (config.hasChanged())
+			config.save();
+	}
+	
+}
@@ -2,16 +2,34 @@ package zotmc.collect.forge;
 
 import static com.google.common.base.CaseFormat.LOWER_UNDERSCORE;
 import static com.google.common.base.CaseFormat.UPPER_UNDERSCORE;
+import static org.apache.logging.log4j.Level.WARN;
+import static zotmc.collect.forge.McCollectInit.NAME;
 
+import java.io.File;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.net.URLClassLoader;
 import java.nio.file.Paths;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
 
+import javax.script.Bindings;
+import javax.script.Compilable;
+import javax.script.CompiledScript;
 import javax.script.ScriptEngine;
+import javax.script.ScriptEngineFactory;
 import javax.script.ScriptEngineManager;
 import javax.script.ScriptException;
 
+import com.google.common.base.Charsets;
+import com.google.common.collect.Maps;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hashing;
+
+import cpw.mods.fml.common.FMLLog;
+
 enum Engine {
 	NASHORN,
 	RHINO;
@@ -48,52 +66,182 @@ enum Engine {
 	}
 	
 	
+	/**
+	 * Prepares the engine in a background thread, along with the shared engine and a first scope
+	 * if {@code shared} is true. The context class loader of the calling thread is used.
+	 */
+	public static Future<Engine> warmUp(final boolean shared, final File codeCache) {
+		FutureTask<Engine> ret = new FutureTask<Engine>(new Callable<Engine>() {
+			@Override public Engine call() {
+				Engine engine = prepareEngine();
+				
+				if (engine != null && shared)
+					try {
+						engine.setCodeCache(codeCache);
+						engine.spareScope = engine.newScope();
+						
+					} catch (ScriptException e) {
+						// reported again when the scripts are run
+						FMLLog.log(WARN, e, "[%s] Unable to warm up the script engine", NAME);
+					}
+				
+				return engine;
+			}
+		});
+		
+		Thread thread = new Thread(ret, NAME + " Engine Warm-up");
+		thread.setContextClassLoader(Thread.currentThread().getContextClassLoader());
+		thread.setDaemon(true);
+		thread.start();
+		
+		return ret;
+	}
+	
+	
 	public void reset() {
 		manager = null;
+		shared = null;
+		spareScope = null;
 	}
 	
 	public ScriptEngine getScriptEngine() throws ScriptException {
 		ScriptEngine se = manager.getEngineByName(toString());
+		se.eval(prelude());
+		return se;
+	}
+	
+	
+	private Instance shared;
+	private File codeCache;
+	private Bindings spareScope;
+	
+	/**
+	 * Enables the persistent code cache of Nashorn in the directory, for the engines created
+	 * afterwards.
+	 */
+	public void setCodeCache(File dir) {
+		codeCache = dir;
+	}
+	
+	/**
+	 * The engine shared by all the scripts, with the prelude compiled once.
+	 * Scripts should be evaluated in scopes created by {@link #newScope()}.
+	 */
+	public ScriptEngine getSharedScriptEngine() throws ScriptException {
+		return shared().getScriptEngine();
+	}
+	
+	private Instance shared() throws ScriptException {
+		if (shared == null)
+			shared = new Instance(newScriptEngine());
+		return shared;
+	}
+	
+	/**
+	 * An engine of its own besides the shared one, for scripts run on another thread.
+	 * May be called from any thread.
+	 */
+	public Instance newInstance() throws ScriptException {
+		return new Instance(newScriptEngine());
+	}
+	
+	private synchronized ScriptEngine newScriptEngine() {
+		if (this == NASHORN && codeCache != null)
+			for (ScriptEngineFactory factory : manager.getEngineFactories())
+				if (factory.getNames().contains(toString()))
+					try {
+						// read when the engine is created
+						System.setProperty("nashorn.persistent.code.cache", codeCache.getPath());
+						
+						return (ScriptEngine) factory.getClass()
+								.getMethod("getScriptEngine", String[].class)
+								.invoke(factory, (Object) new String[] {"--persistent-code-cache"});
+						
+					} catch (Exception e) {
+						FMLLog.log(WARN, e, "[%s] Unable to enable the code cache of Nashorn", NAME);
+						break;
+					}
+		
+		return manager.getEngineByName(toString());
+	}
+	
+	/**
+	 * Evaluates the script with the shared engine in the scope. Scripts are compiled once for each
+	 * distinct content.
+	 */
+	public Object eval(String script, Bindings scope) throws ScriptException {
+		return shared().eval(script, scope);
+	}
+	
+	/**
+	 * A new global scope of the shared engine, where the prelude has been run.
+	 */
+	public Bindings newScope() throws ScriptException {
+		Bindings spare = spareScope;
+		if (spare != null) {
+			spareScope = null;
+			return spare;
+		}
+		return shared().newScope();
+	}
+	
+	
+	/**
+	 * A script engine with the prelude compiled for it, and the scripts it has compiled so far by
+	 * their content. Not thread-safe.
+	 */
+	public final class Instance {
+		private final ScriptEngine se;
+		private final CompiledScript prelude;
+		private final Map<HashCode, CompiledScript> compiled = Maps.newHashMap();
 		
-		se.eval("scriptEngine = '" + toString() + "'");
+		private Instance(ScriptEngine se) throws ScriptException {
+			this.se = se;
+			prelude = se instanceof Compilable ? ((Compilable) se).compile(prelude()) : null;
+		}
 		
-		switch (this) {
-		case NASHORN:
-			se.eval("load('nashorn:mozilla_compat.js');");
+		public ScriptEngine getScriptEngine() {
+			return se;
+		}
+		
+		public Object eval(String script, Bindings scope) throws ScriptException {
+			if (!(se instanceof Compilable))
+				return se.eval(script, scope);
+			
+			HashCode key = Hashing.sha1().hashString(script, Charsets.UTF_8);
+			CompiledScript cs = compiled.get(key);
+			if (cs == null)
+				compiled.put(key, cs = ((Compilable) se).compile(script));
+			
+			return cs.eval(scope);
+		}
+		
+		public Bindings newScope() throws ScriptException {
+			Bindings ret = se.createBindings();
 			
-			applyImports(se);
+			if (prelude != null)
+				prelude.eval(ret);
+			else
+				se.eval(prelude(), ret);
 			
-			se.eval(  "	function o() {								\n"
-					+ "	  return Java.to(							\n"
-					+ "       arguments,							\n"
-					+ "       'java.lang.Object[]');				\n"
-					+ "	}											\n"
-					+ "	function i() {								\n"
-					+ "	  return Java.to(							\n"
-					+ "       arguments,							\n"
-					+ "       'net.minecraft.item.Item[]');			\n"
-					+ "	}											\n"
-					+ "	function b() {								\n"
-					+ "	  return Java.to(							\n"
-					+ "       arguments,							\n"
-					+ "       'net.minecraft.block.Block[]');		\n"
-					+ "	}											\n"
-					+ "	function s() {								\n"
-					+ "	  return Java.to(							\n"
-					+ "       arguments,							\n"
-					+ "       'java.lang.String[]');				\n"
-					+ "	}											\n"
-					+ "	function is() {								\n"
-					+ "	  return Java.to(							\n"
-					+ "       arguments,							\n"
-					+ "       'net.minecraft.item.ItemStack[]');	\n"
-					+ "	}											\n");
-			break;
+			return ret;
+		}
+	}
+	
+	
+	private String prelude() {
+		switch (this) {
+		case NASHORN:
+			return "scriptEngine = '" + toString() + "';						\n"
+					+ "	load('nashorn:mozilla_compat.js');					\n"
+					+ IMPORTS
+					+ NASHORN_HELPERS;
 			
 		case RHINO:
-			applyImports(se);
-			
-			se.eval(  "	function o() {									\n"
+			// the Rhino of Java 6 predates varargs methods, so the arrays are built here instead
+			return "scriptEngine = '" + toString() + "';						\n"
+					+ IMPORTS
+					+ "	function o() {									\n"
 					+ "	  return McCollect.adaptArgs(					\n"
 					+ "	      java.lang.Object,							\n"
 					+ "	      Array.prototype.slice.call(arguments));	\n"
@@ -117,26 +265,35 @@ enum Engine {
 					+ "	  return McCollect.adaptArgs(					\n"
 					+ "	      Packages.net.minecraft.item.ItemStack,	\n"
 					+ "	      Array.prototype.slice.call(arguments));	\n"
-					+ "	}												\n");
-			break;
-			
+					+ "	}												\n";
 		}
 		
-		return se;
+		throw new AssertionError();
 	}
 	
+	// Nashorn builds the typed array of a varargs method straight from the arguments
+	private static final String NASHORN_HELPERS =
+			  "	o				= McCollect.objects;					\n"
+			+ "	i				= McCollect.items;						\n"
+			+ "	b				= McCollect.blocks;						\n"
+			+ "	s				= McCollect.strings;					\n"
+			+ "	is				= McCollect.itemStacks;					\n";
+	
+	private static final String IMPORTS =
+			  "	importPackage(Packages.zotmc.collect.recipe);			\n"
+			+ "	importClass(Packages.zotmc.collect.forge.McCollect);	\n"
+			+ "															\n"
+			+ "	W				= RecipeElement.W;						\n"
+			+ "	inMod			= Content.inMod;						\n"
+			+ "	equalTo			= RecipeElement.equalTo;				\n"
+			+ "	inProportion	= RecipeElement.inProportion;			\n"
+			+ "	inShape			= RecipeElement.inShape;				\n"
+			+ "	vague			= RecipeElement.vague;					\n"
+			+ " STRICT_MATCHING	= BasicRecipeView.STRICT_MATCHING;		\n"
+			+ " LOOSE_MATCHING	= BasicRecipeView.LOOSE_MATCHING;		\n";
+	
 	public void applyImports(ScriptEngine se) throws ScriptException {
-		se.eval(  "	importPackage(Packages.zotmc.collect.recipe);			\n"
-				+ "	importClass(Packages.zotmc.collect.forge.McCollect);	\n"
-				+ "															\n"
-				+ "	W				= RecipeElement.W;						\n"
-				+ "	inMod			= Content.inMod;						\n"
-				+ "	equalTo			= RecipeElement.equalTo;				\n"
-				+ "	inProportion	= RecipeElement.inProportion;			\n"
-				+ "	inShape			= RecipeElement.inShape;				\n"
-				+ "	vague			= RecipeElement.vague;					\n"
-				+ " STRICT_MATCHING	= BasicRecipeView.STRICT_MATCHING;		\n"
-				+ " LOOSE_MATCHING	= BasicRecipeView.LOOSE_MATCHING;		\n");
+		se.eval(IMPORTS);
 	}
 	
 	@Override public String toString() {
@@ -19,7 +19,12 @@ package zotmc.collect.forge;
 
 import java.util.Arrays;
 
+import net.minecraft.block.Block;
+import net.minecraft.item.Item;
+import net.minecraft.item.ItemStack;
+
 import com.google.common.collect.Iterables;
+import com.google.common.collect.ObjectArrays;
 
 public class McCollect {
 	
@@ -27,4 +32,40 @@ public class McCollect {
 		return Iterables.toArray(Arrays.asList(args), clz);
 	}
 	
+	
+	// bound to the script helpers o, i, b, s and is of Nashorn, so that the engine builds the
+	// arrays of the right types straight from the arguments of a call. The first argument is kept
+	// apart, so that a single array passed to a helper is wrapped as before, not passed through.
+	
+	public static Object[] objects() {
+		return new Object[0];
+	}
+	public static Object[] objects(Object first, Object... rest) {
+		return ObjectArrays.concat(first, rest);
+	}
+	public static Item[] items() {
+		return new Item[0];
+	}
+	public static Item[] items(Item first, Item... rest) {
+		return ObjectArrays.concat(first, rest);
+	}
+	public static Block[] blocks() {
+		return new Block[0];
+	}
+	public static Block[] blocks(Block first, Block... rest) {
+		return ObjectArrays.concat(first, rest);
+	}
+	public static String[] strings() {
+		return new String[0];
+	}
+	public static String[] strings(String first, String... rest) {
+		return ObjectArrays.concat(first, rest);
+	}
+	public static ItemStack[] itemStacks() {
+		return new ItemStack[0];
+	}
+	public static ItemStack[] itemStacks(ItemStack first, ItemStack... rest) {
+		return ObjectArrays.concat(first, rest);
+	}
+	
 }
@@ -17,36 +17,39 @@
 
 package zotmc.collect.forge;
 
-import static java.util.Locale.ENGLISH;
 import static org.apache.logging.log4j.Level.ERROR;
 import static zotmc.collect.forge.McCollectInit.MODID;
 import static zotmc.collect.forge.McCollectInit.NAME;
 
 import java.io.File;
-import java.io.InputStreamReader;
+import java.io.IOException;
 import java.util.Map;
 import java.util.Map.Entry;
-import java.util.zip.ZipEntry;
-import java.util.zip.ZipFile;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.script.ScriptException;
 
 import net.minecraftforge.common.ForgeModContainer;
-import net.minecraftforge.oredict.RecipeSorter;
-import zotmc.collect.delegate.Enumerable;
+import zotmc.collect.recipe.RecipeFinder;
+import zotmc.collect.recipe.RecipeSnapshot;
 
 import com.google.common.base.Charsets;
-import com.google.common.base.Joiner;
+import com.google.common.base.Throwables;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Maps;
-import com.google.common.io.CharStreams;
-import com.google.common.io.Closer;
-import com.google.common.io.Files;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
 
 import cpw.mods.fml.common.FMLCommonHandler;
 import cpw.mods.fml.common.FMLLog;
+import cpw.mods.fml.common.Loader;
 import cpw.mods.fml.common.Mod;
 import cpw.mods.fml.common.Mod.EventHandler;
 import cpw.mods.fml.common.Mod.Instance;
+import cpw.mods.fml.common.ModContainer;
 import cpw.mods.fml.common.event.FMLLoadCompleteEvent;
 import cpw.mods.fml.common.event.FMLPreInitializationEvent;
 
@@ -57,13 +60,23 @@ public class McCollectInit {
 	@Instance(MODID) public static McCollectInit instance;
 	
 	
+	private Config config;
+	private ScriptLoader loader;
+	private Future<Engine> warmUp;
+	private File profile, snapshot;
 	private Map<String, String> scripts = Maps.newLinkedHashMap();
+	private Map<String, McCollectScript> natives = ImmutableMap.of();
 	
 	public boolean isScriptsLoaded() {
 		return scripts == null;
 	}
 	
 	@EventHandler public void preInit(FMLPreInitializationEvent event) {
+		// observe the recipes registered by other mods from now on
+		RecipeFinder.entireRecipeList();
+		
+		config = new Config(event.getSuggestedConfigurationFile());
+		
 		try {
 			File dir = new File(event.getModConfigurationDirectory(), MODID);
 			
@@ -71,51 +84,18 @@ public class McCollectInit {
 				dir.delete();
 			dir.mkdirs();
 			
+			if (config.profileScripts)
+				profile = new File(dir, "profile.csv");
+			if (config.snapshot)
+				snapshot = new File(dir, "snapshot.bin");
 			
-			Joiner slash = Joiner.on('/');
 			
-			for (File f : dir.listFiles())
-				try {
-					String fn = f.getName();
-
-					
-					if (fn.toLowerCase(ENGLISH).endsWith(".js"))
-						scripts.put(fn, Files.toString(f, Charsets.UTF_8));
-					
-					else if (fn.toLowerCase(ENGLISH).endsWith(".zip")) {
-						Closer closer = Closer.create();
-						
-						try {
-							ZipFile zf = new ZipFile(f);
-							closer.register(zf);
-							
-							for (ZipEntry ze : Enumerable.forZipFile(zf))
-								if (ze.getName().toLowerCase(ENGLISH).endsWith(".js")) {
-									String zen = slash.join(fn, ze.getName());
-									
-									try {
-										scripts.put(zen, CharStreams.toString(
-												new InputStreamReader(zf.getInputStream(ze), Charsets.UTF_8)));
-										
-									} catch (Exception e) {
-										FMLLog.log(ERROR, e,
-												"[%s] An error occurred while reading a file: %s",
-												NAME, zen);
-									}
-								}
-							
-						} catch (Exception e) {
-							throw e;
-						} finally {
-							closer.close();
-						}
-					}
-					
-				} catch (Exception e) {
-					FMLLog.log(ERROR, e,
-							"[%s] An error occurred while reading a file: %s",
-							NAME, f.getName());
-				}
+			// read in the background until the scripts are needed
+			loader = ScriptLoader.start(dir.listFiles());
+			
+			// and set up the engine meanwhile
+			warmUp = Engine.warmUp(config.sharedEngine,
+					config.codeCache ? new File(dir, "codecache") : null);
 			
 		} catch (Exception e) {
 			FMLLog.log(ERROR, e,
@@ -126,32 +106,158 @@ public class McCollectInit {
 	}
 	
 	@EventHandler public void onLoadComplete(FMLLoadCompleteEvent event) {
-		Engine engine = Engine.prepareEngine();
+		if (loader != null)
+			try {
+				scripts = loader.get();
+				natives = loader.natives();
+				loader = null;
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new RuntimeException(e);
+			}
+		
+		RecipeSnapshot base = null;
+		HashCode key = null;
+		if (snapshot != null && !natives.isEmpty())
+			// whatever a script written in Java does besides changing recipes cannot be replayed
+			FMLLog.info("[%s] Not using the recipe snapshot, as some of the scripts are written in Java",
+					NAME);
+		else if (snapshot != null && !scripts.isEmpty()) {
+			base = RecipeSnapshot.capture();
+			key = snapshotKey(scripts, base.fingerprint());
+		}
 		
-		if (engine == null && scripts.size() > 0)
+		if (base != null && base.replay(snapshot, key)) {
+			FMLLog.info("[%s] The scripts, the mods and the recipes are unchanged since the last launch, "
+					+ "replayed the changes of the scripts from %s", NAME, snapshot);
+			
+			if (warmUp != null)
+				warmUp.cancel(true);
+			warmUp = null;
+			scripts = null;
+			natives = null;
+		}
+		else {
+			int failures = McCollectInit.failures.get();
+			runScripts();
+			
+			if (base != null && McCollectInit.failures.get() == failures)
+				try {
+					base.save(snapshot, key);
+				} catch (IOException e) {
+					FMLLog.log(ERROR, e, "[%s] Unable to save the recipe snapshot", NAME);
+				}
+		}
+		
+		
+		if (ForgeModContainer.shouldSortRecipies)
+			RecipeFinder.sortRecipes();
+		
+	}
+	
+	private void runScripts() {
+		// the engine is not needed if all the scripts are written in Java
+		boolean js = scripts.size() > natives.size();
+		
+		Engine engine = null;
+		if (!js) {
+			if (warmUp != null)
+				warmUp.cancel(true);
+		}
+		else if (warmUp != null)
+			try {
+				engine = warmUp.get();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new RuntimeException(e);
+			} catch (ExecutionException e) {
+				throw Throwables.propagate(e.getCause());
+			}
+		else
+			engine = Engine.prepareEngine();
+		warmUp = null;
+		
+		if (engine == null && js)
 			throw new RuntimeException(
 					"Neither one of the required JavaScript engines Rhino or Nashorn presents.");
 		
 		
-		for (Entry<String, String> entry : scripts.entrySet())
-			try {
-				engine.getScriptEngine().eval(entry.getValue());
-				
-			} catch (ScriptException e) {
-				FMLLog.severe("[%s] Catched an exception during the the execution of %s",
-						NAME, entry.getKey());
-				e.printStackTrace();
-				
-				FMLCommonHandler.instance().raiseException(e, "Error in scripts", true);
+		RecipeFinder.deferChanges();
+		ScriptProfiler profiler = new ScriptProfiler();
+		
+		if (config.sharedEngine && config.parallelScripts)
+			new ScriptScheduler(engine, natives, profiler).run(scripts);
+		else
+			for (Entry<String, String> entry : scripts.entrySet()) {
+				ScriptProfiler.Sample sample = profiler.start(entry.getKey());
+				try {
+					McCollectScript script = natives.get(entry.getKey());
+					if (script != null)
+						run(script);
+					else if (config.sharedEngine)
+						engine.eval(entry.getValue(), engine.newScope());
+					else
+						engine.getScriptEngine().eval(entry.getValue());
+					
+				} catch (ScriptException e) {
+					reportError(entry.getKey(), e);
+				} finally {
+					profiler.stop(sample);
+				}
 			}
 		
-		engine.reset();
+		if (profile != null && !scripts.isEmpty())
+			profiler.report(profile);
+		
+		if (engine != null)
+			engine.reset();
 		scripts = null;
+		natives = null;
 		
+		RecipeFinder.applyChanges();
+	}
+	
+	/**
+	 * A key that changes with the scripts, the mods loaded and the recipe list before the scripts run.
+	 */
+	private static HashCode snapshotKey(Map<String, String> scripts, HashCode recipes) {
+		Hasher h = Hashing.sha1().newHasher();
 		
-		if (ForgeModContainer.shouldSortRecipies)
-			RecipeSorter.sortCraftManager();
+		for (ModContainer mod : Loader.instance().getActiveModList())
+			putString(putString(h, mod.getModId()), mod.getVersion());
+		
+		for (Entry<String, String> entry : scripts.entrySet())
+			putString(putString(h, entry.getKey()), entry.getValue());
+		
+		return h.putBytes(recipes.asBytes()).hash();
+	}
+	
+	private static Hasher putString(Hasher h, String s) {
+		return h.putInt(s.length()).putString(s, Charsets.UTF_8);
+	}
+	
+	
+	/**
+	 * Runs a Java script, with its failures reported as those of the other scripts.
+	 */
+	static void run(McCollectScript script) throws ScriptException {
+		try {
+			script.run();
+		} catch (ScriptException e) {
+			throw e;
+		} catch (Exception e) {
+			throw new ScriptException(e);
+		}
+	}
+	
+	private static final AtomicInteger failures = new AtomicInteger();
+	
+	static void reportError(String script, ScriptException e) {
+		failures.incrementAndGet();
+		FMLLog.severe("[%s] Catched an exception during the the execution of %s", NAME, script);
+		e.printStackTrace();
 		
+		FMLCommonHandler.instance().raiseException(e, "Error in scripts", true);
 	}
 
 }
@@ -0,0 +1,253 @@
+/*
+ * Copyright (c) 2014, Zothf, All rights reserved.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library.
+ */
+
+package zotmc.collect.forge;
+
+import static java.util.Locale.ENGLISH;
+import static org.apache.logging.log4j.Level.ERROR;
+import static zotmc.collect.forge.McCollectInit.NAME;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.ServiceLoader;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ThreadFactory;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import zotmc.collect.delegate.Enumerable;
+
+import com.google.common.base.Charsets;
+import com.google.common.base.Joiner;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hashing;
+import com.google.common.io.ByteStreams;
+import com.google.common.io.Closer;
+import com.google.common.io.Files;
+
+import cpw.mods.fml.common.FMLLog;
+
+/**
+ * Reads the scripts of the files in a small pool of threads, one task per file. The scripts are
+ * collected in the order of the file names, and of the entries within zip files, however the tasks
+ * complete.
+ * 
+ * @author zot
+ */
+class ScriptLoader {
+	
+	private static final int THREADS = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors()));
+	
+	private static final ThreadFactory THREAD_FACTORY = new ThreadFactory() {
+		@Override public Thread newThread(Runnable r) {
+			Thread ret = new Thread(r, NAME + " Script Loader");
+			ret.setDaemon(true);
+			return ret;
+		}
+	};
+	
+	private final List<Future<List<Entry<String, String>>>> tasks = Lists.newArrayList();
+	private final Map<String, McCollectScript> natives = Maps.newHashMap();
+	
+	private ScriptLoader() { }
+	
+	/**
+	 * Starts reading the .js files and the .js entries of the .zip files, and returns at once.
+	 * The scripts of the .jar files are loaded by {@link #get()} on the calling thread.
+	 */
+	static ScriptLoader start(File[] files) {
+		final ScriptLoader ret = new ScriptLoader();
+		ExecutorService executor = Executors.newFixedThreadPool(THREADS, THREAD_FACTORY);
+		
+		files = files.clone();
+		Arrays.sort(files);
+		
+		for (final File f : files) {
+			final String fn = f.getName();
+			
+			if (fn.toLowerCase(ENGLISH).endsWith(".js"))
+				ret.tasks.add(executor.submit(new Callable<List<Entry<String, String>>>() {
+					@Override public List<Entry<String, String>> call() {
+						try {
+							return ImmutableList.of(Maps.immutableEntry(fn, read(f)));
+							
+						} catch (Exception e) {
+							FMLLog.log(ERROR, e,
+									"[%s] An error occurred while reading a file: %s",
+									NAME, fn);
+						}
+						return ImmutableList.of();
+					}
+				}));
+			
+			else if (fn.toLowerCase(ENGLISH).endsWith(".jar"))
+				ret.tasks.add(new FutureTask<List<Entry<String, String>>>(
+						new Callable<List<Entry<String, String>>>() {
+					@Override public List<Entry<String, String>> call() {
+						try {
+							return ret.loadJar(f);
+							
+						} catch (Throwable e) {
+							FMLLog.log(ERROR, e,
+									"[%s] An error occurred while loading a file: %s",
+									NAME, fn);
+						}
+						return ImmutableList.of();
+					}
+				}));
+			
+			else if (fn.toLowerCase(ENGLISH).endsWith(".zip"))
+				ret.tasks.add(executor.submit(new Callable<List<Entry<String, String>>>() {
+					@Override public List<Entry<String, String>> call() {
+						try {
+							return readZip(f);
+							
+						} catch (Exception e) {
+							FMLLog.log(ERROR, e,
+									"[%s] An error occurred while reading a file: %s",
+									NAME, fn);
+						}
+						return ImmutableList.of();
+					}
+				}));
+		}
+		
+		executor.shutdown();
+		return ret;
+	}
+	
+	/**
+	 * Waits for all the files to be read, and returns the scripts by their names in order. Java
+	 * scripts are given by a line naming their class and the hash of their jar file, and can be
+	 * found in {@link #natives()} by the same names.
+	 */
+	Map<String, String> get() throws InterruptedException {
+		Map<String, String> ret = Maps.newLinkedHashMap();
+		
+		for (Future<List<Entry<String, String>>> task : tasks)
+			try {
+				if (task instanceof FutureTask && !task.isDone())
+					((FutureTask<?>) task).run();
+				
+				for (Entry<String, String> entry : task.get())
+					ret.put(entry.getKey(), entry.getValue());
+				
+			} catch (ExecutionException e) {
+				// the tasks report their own errors
+				throw new AssertionError(e);
+			}
+		
+		return ret;
+	}
+	
+	/**
+	 * The Java scripts loaded by {@link #get()}.
+	 */
+	Map<String, McCollectScript> natives() {
+		return natives;
+	}
+	
+	
+	
+	private List<Entry<String, String>> loadJar(File f) throws IOException {
+		List<Entry<String, String>> ret = Lists.newArrayList();
+		HashCode hash = Files.hash(f, Hashing.sha1());
+		ClassLoader loader = new URLClassLoader(new URL[] {f.toURI().toURL()},
+				ScriptLoader.class.getClassLoader());
+		
+		// providers are also looked up from the parent, where the scripts of other jars are not found
+		for (McCollectScript script : ServiceLoader.load(McCollectScript.class, loader))
+			if (script.getClass().getClassLoader() == loader) {
+				String name = f.getName() + "/" + script.getClass().getName();
+				ret.add(Maps.immutableEntry(name, "// " + name + " " + hash));
+				natives.put(name, script);
+			}
+		
+		return ret;
+	}
+	
+	private static String read(File f) throws IOException {
+		FileChannel channel = FileChannel.open(f.toPath(), StandardOpenOption.READ);
+		
+		try {
+			long size = channel.size();
+			if (size > Integer.MAX_VALUE)
+				throw new IOException("File too large");
+			
+			ByteBuffer buffer = ByteBuffer.allocate((int) size);
+			while (buffer.hasRemaining() && channel.read(buffer) >= 0);
+			buffer.flip();
+			
+			return Charsets.UTF_8.decode(buffer).toString();
+			
+		} finally {
+			channel.close();
+		}
+	}
+	
+	private static List<Entry<String, String>> readZip(File f) throws IOException {
+		List<Entry<String, String>> ret = Lists.newArrayList();
+		Joiner slash = Joiner.on('/');
+		Closer closer = Closer.create();
+		
+		try {
+			ZipFile zf = closer.register(new ZipFile(f));
+			
+			for (ZipEntry ze : Enumerable.forZipFile(zf))
+				if (ze.getName().toLowerCase(ENGLISH).endsWith(".js")) {
+					String zen = slash.join(f.getName(), ze.getName());
+					
+					try {
+						InputStream in = closer.register(zf.getInputStream(ze));
+						ret.add(Maps.immutableEntry(zen,
+								Charsets.UTF_8.decode(ByteBuffer.wrap(ByteStreams.toByteArray(in))).toString()));
+						
+					} catch (Exception e) {
+						FMLLog.log(ERROR, e,
+								"[%s] An error occurred while reading a file: %s",
+								NAME, zen);
+					}
+				}
+			
+		} catch (Throwable e) {
+			throw closer.rethrow(e);
+		} finally {
+			closer.close();
+		}
+		
+		return ret;
+	}
+	
+}
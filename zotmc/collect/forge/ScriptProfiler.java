@@ -0,0 +1,143 @@
+/*
+ * Copyright (c) 2014, Zothf, All rights reserved.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library.
+ */
+
+package zotmc.collect.forge;
+
+import static org.apache.logging.log4j.Level.ERROR;
+import static zotmc.collect.forge.McCollectInit.NAME;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import zotmc.collect.recipe.QueryCounter;
+
+import com.google.common.base.Charsets;
+import com.google.common.collect.Lists;
+import com.google.common.io.Files;
+
+import cpw.mods.fml.common.FMLLog;
+
+/**
+ * Records the time taken by each script, the queries it made, the recipes it examined and changed,
+ * and the memory it allocated where the JVM can tell. The samples are reported as a table sorted by
+ * time to the log, and as comma-separated values to a file.
+ * 
+ * @author zot
+ */
+class ScriptProfiler {
+	
+	private static final com.sun.management.ThreadMXBean ALLOCATION = allocationBean();
+	
+	private static com.sun.management.ThreadMXBean allocationBean() {
+		try {
+			Object ret = ManagementFactory.getThreadMXBean();
+			if (ret instanceof com.sun.management.ThreadMXBean) {
+				com.sun.management.ThreadMXBean bean = (com.sun.management.ThreadMXBean) ret;
+				if (bean.isThreadAllocatedMemorySupported() && bean.isThreadAllocatedMemoryEnabled())
+					return bean;
+			}
+		} catch (Throwable ignored) { } // not a HotSpot JVM
+		
+		return null;
+	}
+	
+	private static long allocatedBytes() {
+		return ALLOCATION == null ? -1 : ALLOCATION.getThreadAllocatedBytes(Thread.currentThread().getId());
+	}
+	
+	
+	static class Sample {
+		final String script;
+		private final long start = System.nanoTime(), startAllocated = allocatedBytes();
+		private final QueryCounter counter = QueryCounter.start();
+		private long nanos, allocated;
+		
+		private Sample(String script) {
+			this.script = script;
+		}
+		
+		private void stop() {
+			nanos = System.nanoTime() - start;
+			allocated = startAllocated < 0 ? -1 : allocatedBytes() - startAllocated;
+			counter.stop();
+		}
+	}
+	
+	private static final Comparator<Sample> SLOWEST_FIRST = new Comparator<Sample>() {
+		@Override public int compare(Sample o1, Sample o2) {
+			return Long.compare(o2.nanos, o1.nanos);
+		}
+	};
+	
+	
+	
+	private final List<Sample> samples = Collections.synchronizedList(Lists.<Sample>newArrayList());
+	
+	/**
+	 * Starts sampling the script on the calling thread.
+	 */
+	Sample start(String script) {
+		return new Sample(script);
+	}
+	
+	/**
+	 * Stops the sample on the thread it was started.
+	 */
+	void stop(Sample sample) {
+		sample.stop();
+		samples.add(sample);
+	}
+	
+	/**
+	 * Logs the samples, slowest first, and writes them to the file.
+	 */
+	void report(File file) {
+		List<Sample> sorted;
+		synchronized (samples) {
+			sorted = Lists.newArrayList(samples);
+		}
+		Collections.sort(sorted, SLOWEST_FIRST);
+		
+		long total = 0;
+		for (Sample s : sorted)
+			total += s.nanos;
+		
+		FMLLog.info("[%s] %d scripts took %.1f ms:", NAME, sorted.size(), total / 1e6);
+		FMLLog.info("[%s] %10s %8s %10s %8s %12s  %s",
+				NAME, "ms", "queries", "examined", "mutated", "allocated", "script");
+		for (Sample s : sorted)
+			FMLLog.info("[%s] %10.3f %8d %10d %8d %12s  %s", NAME, s.nanos / 1e6,
+					s.counter.getQueries(), s.counter.getExamined(), s.counter.getMutated(),
+					s.allocated < 0 ? "n/a" : s.allocated / 1024 + " KB", s.script);
+		
+		StringBuilder csv = new StringBuilder("script,nanos,queries,examined,mutated,allocated_bytes\n");
+		for (Sample s : sorted)
+			csv.append(String.format("\"%s\",%d,%d,%d,%d,%d\n", s.script.replace("\"", "\"\""), s.nanos,
+					s.counter.getQueries(), s.counter.getExamined(), s.counter.getMutated(), s.allocated));
+		
+		try {
+			Files.write(csv, file, Charsets.UTF_8);
+		} catch (IOException e) {
+			FMLLog.log(ERROR, e, "[%s] Unable to write the script profile: %s", NAME, file);
+		}
+	}
+	
+}
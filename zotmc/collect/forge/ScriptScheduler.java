@@ -0,0 +1,342 @@
+/*
+ * Copyright (c) 2014, Zothf, All rights reserved.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library.
+ */
+
+package zotmc.collect.forge;
+
+import static zotmc.collect.forge.McCollectInit.NAME;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.script.ScriptException;
+
+import net.minecraft.item.crafting.IRecipe;
+import zotmc.collect.recipe.RecipeFinder;
+import zotmc.collect.recipe.RecipeFinder.SearchManager;
+import zotmc.collect.recipe.RegistryLock;
+
+import com.google.common.base.Joiner;
+import com.google.common.base.Splitter;
+import com.google.common.base.Throwables;
+import com.google.common.collect.Iterables;
+import com.google.common.collect.LinkedHashMultimap;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Multimap;
+import com.google.common.collect.Sets;
+
+import cpw.mods.fml.common.FMLLog;
+
+/**
+ * Runs the scripts in the order of their requirements, and runs the independent ones concurrently.
+ * A script may declare in its leading comments the scripts it requires and the things it touches:
+ * 
+ * <pre>
+ * // @requires tools.js, pack.zip/base.js
+ * // @touches swords, pickaxes
+ * </pre>
+ * 
+ * Consecutive scripts that all declare what they touch, touch nothing in common, and do not require
+ * one another, are run together on a pool of threads, each with an engine and a forked
+ * {@link SearchManager} of its own. The forks are merged in the order of the scripts, and recipes
+ * changed by more than one of them are reported. Their access to the smelting recipes, the fuels and
+ * the ore dictionary through McCollect is serialized by the {@link RegistryLock}, while anything else
+ * they reach in Java is not guarded at all.
+ * Other scripts, including the ones written in Java, are run one at a time on the calling thread.
+ * 
+ * @author zot
+ */
+class ScriptScheduler {
+	
+	private static final int THREADS = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors()));
+	private static final Pattern DIRECTIVE = Pattern.compile("//\\s*@(requires|touches)\\b(.*)");
+	private static final Splitter LIST = Splitter.onPattern("[,\\s]+").omitEmptyStrings();
+	
+	private final Engine engine;
+	private final Map<String, McCollectScript> natives;
+	private final ScriptProfiler profiler;
+	private final ThreadLocal<Engine.Instance> instances = new ThreadLocal<Engine.Instance>();
+	private ExecutorService executor;
+	
+	ScriptScheduler(Engine engine, Map<String, McCollectScript> natives, ScriptProfiler profiler) {
+		this.engine = engine;
+		this.natives = natives;
+		this.profiler = profiler;
+	}
+	
+	
+	static class Script {
+		final String name, source;
+		final Set<String> requires = Sets.newLinkedHashSet();
+		Set<String> touches; // null if not declared
+		
+		Script(String name, String source) {
+			this.name = name;
+			this.source = source;
+			
+			for (String line : Splitter.on('\n').trimResults().split(source)) {
+				if (line.isEmpty())
+					continue;
+				if (!line.startsWith("//"))
+					break;
+				
+				Matcher m = DIRECTIVE.matcher(line);
+				if (m.matches()) {
+					Iterable<String> values = LIST.split(m.group(2));
+					
+					if (m.group(1).equals("requires"))
+						Iterables.addAll(requires, values);
+					else {
+						if (touches == null)
+							touches = Sets.newHashSet();
+						Iterables.addAll(touches, values);
+					}
+				}
+			}
+		}
+		
+		boolean isIndependentOf(Script o) {
+			return touches != null && o.touches != null
+					&& Collections.disjoint(touches, o.touches)
+					&& !requires.contains(o.name) && !o.requires.contains(name);
+		}
+		
+		@Override public String toString() {
+			return name;
+		}
+	}
+	
+	
+	/**
+	 * Runs the scripts, given by their names in the order they were found.
+	 */
+	void run(Map<String, String> scripts) {
+		List<Script> list = Lists.newArrayList();
+		for (Entry<String, String> entry : scripts.entrySet())
+			list.add(new Script(entry.getKey(), entry.getValue()));
+		
+		try {
+			for (List<Script> wave : waves(order(list)))
+				if (wave.size() == 1) {
+					Script script = wave.get(0);
+					ScriptProfiler.Sample sample = profiler.start(script.name);
+					try {
+						McCollectScript n = natives.get(script.name);
+						if (n != null)
+							McCollectInit.run(n);
+						else
+							engine.eval(script.source, engine.newScope());
+					} catch (ScriptException e) {
+						McCollectInit.reportError(script.name, e);
+					} finally {
+						profiler.stop(sample);
+					}
+				}
+				else
+					runConcurrently(wave);
+			
+		} finally {
+			if (executor != null) {
+				executor.shutdownNow();
+				executor = null;
+			}
+		}
+	}
+	
+	private void runConcurrently(List<Script> wave) {
+		if (executor == null) {
+			final ClassLoader loader = Thread.currentThread().getContextClassLoader();
+			
+			executor = Executors.newFixedThreadPool(THREADS, new ThreadFactory() {
+				@Override public Thread newThread(Runnable r) {
+					Thread ret = new Thread(r, NAME + " Script Runner");
+					ret.setContextClassLoader(loader);
+					ret.setDaemon(true);
+					return ret;
+				}
+			});
+		}
+		
+		List<SearchManager> forks = Lists.newArrayList();
+		List<Future<?>> tasks = Lists.newArrayList();
+		
+		for (final Script script : wave) {
+			final SearchManager fork = RecipeFinder.fork();
+			forks.add(fork);
+			
+			tasks.add(executor.submit(new Callable<Void>() {
+				@Override public Void call() throws ScriptException {
+					RecipeFinder.setCurrent(fork);
+					RegistryLock.confine();
+					ScriptProfiler.Sample sample = profiler.start(script.name);
+					try {
+						Engine.Instance instance = instance();
+						instance.eval(script.source, instance.newScope());
+					} finally {
+						profiler.stop(sample);
+						RegistryLock.release();
+						RecipeFinder.setCurrent(null);
+					}
+					return null;
+				}
+			}));
+		}
+		
+		Map<IRecipe, Script> owners = Maps.newIdentityHashMap();
+		Multimap<String, IRecipe> conflicts = LinkedHashMultimap.create();
+		
+		for (int i = 0; i < wave.size(); i++) {
+			Script script = wave.get(i);
+			
+			try {
+				tasks.get(i).get();
+				
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new RuntimeException(e);
+			} catch (ExecutionException e) {
+				if (e.getCause() instanceof ScriptException)
+					McCollectInit.reportError(script.name, (ScriptException) e.getCause());
+				else
+					throw Throwables.propagate(e.getCause());
+			}
+			
+			// the changes made before a failure are kept, as they would be without forks
+			for (IRecipe r : forks.get(i).getTouchedRecipes()) {
+				Script previous = owners.put(r, script);
+				if (previous != null)
+					conflicts.put(previous + " and " + script, r);
+			}
+			RecipeFinder.merge(forks.get(i));
+		}
+		
+		for (Entry<String, Collection<IRecipe>> entry : conflicts.asMap().entrySet())
+			FMLLog.warning("[%s] Conflicting changes by %s to %d recipes, merged in that order: %s",
+					NAME, entry.getKey(), entry.getValue().size(), outputs(entry.getValue()));
+	}
+	
+	private Engine.Instance instance() throws ScriptException {
+		Engine.Instance ret = instances.get();
+		if (ret == null)
+			instances.set(ret = engine.newInstance());
+		return ret;
+	}
+	
+	private static String outputs(Collection<IRecipe> recipes) {
+		List<Object> ret = Lists.newArrayList();
+		for (IRecipe r : recipes)
+			ret.add(r.getRecipeOutput());
+		return Joiner.on(", ").useForNull("null").join(ret);
+	}
+	
+	
+	
+	/**
+	 * Sorts the scripts so that each comes after the scripts it requires, keeping the given order
+	 * wherever possible. Missing and circular requirements are reported and ignored.
+	 */
+	static List<Script> order(List<Script> scripts) {
+		Map<String, Script> byName = Maps.newHashMap();
+		for (Script s : scripts)
+			byName.put(s.name, s);
+		
+		for (Script s : scripts)
+			for (String r : Lists.newArrayList(s.requires))
+				if (!byName.containsKey(r)) {
+					String sibling = sibling(s.name, r);
+					s.requires.remove(r);
+					
+					if (sibling != null && byName.containsKey(sibling))
+						s.requires.add(sibling);
+					else
+						FMLLog.warning("[%s] %s requires %s, which is not found", NAME, s, r);
+				}
+		
+		List<Script> ret = Lists.newArrayListWithCapacity(scripts.size());
+		Set<String> done = Sets.newHashSet();
+		List<Script> left = Lists.newLinkedList(scripts);
+		boolean cyclic = false;
+		
+		while (!left.isEmpty()) {
+			Script next = null;
+			for (Script s : left)
+				if (done.containsAll(s.requires)) {
+					next = s;
+					break;
+				}
+			
+			if (next == null) {
+				if (!cyclic)
+					FMLLog.warning("[%s] Circular requirements among the scripts: %s",
+							NAME, Joiner.on(", ").join(left));
+				cyclic = true;
+				next = left.get(0);
+			}
+			
+			left.remove(next);
+			ret.add(next);
+			done.add(next.name);
+		}
+		
+		return ret;
+	}
+	
+	/**
+	 * The name of a required script relative to a script inside a zip file, or null.
+	 */
+	private static String sibling(String name, String required) {
+		int i = name.lastIndexOf('/');
+		return i < 0 ? null : name.substring(0, i + 1) + required;
+	}
+	
+	/**
+	 * Groups the consecutive scripts that are pairwise independent.
+	 */
+	static List<List<Script>> waves(List<Script> scripts) {
+		List<List<Script>> ret = Lists.newArrayList();
+		List<Script> wave = null;
+		
+		for (Script s : scripts) {
+			boolean joins = wave != null;
+			if (joins)
+				for (Script t : wave)
+					if (!s.isIndependentOf(t)) {
+						joins = false;
+						break;
+					}
+			
+			if (!joins)
+				ret.add(wave = Lists.newArrayList());
+			wave.add(s);
+		}
+		
+		return ret;
+	}
+	
+}
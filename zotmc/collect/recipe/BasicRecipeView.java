@@ -23,7 +23,6 @@ import static net.minecraftforge.oredict.RecipeSorter.Category.SHAPED;
 import static net.minecraftforge.oredict.RecipeSorter.Category.SHAPELESS;
 import static net.minecraftforge.oredict.RecipeSorter.Category.UNKNOWN;
 import static zotmc.collect.Conversions.castRaw;
-import static zotmc.collect.Matrixs.horizontalMirror;
 import static zotmc.collect.Matrixs.unmodifiableMatrix;
 import static zotmc.collect.forge.McCollectInit.MODID;
 import static zotmc.collect.recipe.RecipeElement.TO_ITEM_STACK;
@@ -41,8 +40,8 @@ import static zotmc.collect.recipe.StackInfos.asInfo;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
-import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 
 import net.minecraft.init.Items;
 import net.minecraft.item.ItemStack;
@@ -56,6 +55,7 @@ import net.minecraftforge.oredict.ShapelessOreRecipe;
 import zotmc.collect.Conversions;
 import zotmc.collect.Matrix;
 import zotmc.collect.delegate.DelegateList;
+import zotmc.collect.recipe.BasicRecipeView.InputView.InputMatrix;
 import zotmc.collect.recipe.RecipeElement.AbstractMatrix;
 
 import com.google.common.base.Function;
@@ -66,9 +66,8 @@ import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMultiset;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
+import com.google.common.collect.MapMaker;
 import com.google.common.collect.Multiset;
-import com.google.common.hash.Hasher;
-import com.google.common.hash.Hashing;
 
 public class BasicRecipeView implements RecipeView {
 	
@@ -83,15 +82,35 @@ public class BasicRecipeView implements RecipeView {
 		}
 	};
 	
+	// views that never change the recipes they are created from
+	static final Function<IRecipe, RecipeView> STRICT_COPY_ON_WRITE = new Function<IRecipe, RecipeView>() {
+		@Override public RecipeView apply(IRecipe input) {
+			return new BasicRecipeView(input, true, true);
+		}
+	};
+	static final Function<IRecipe, RecipeView> LOOSE_COPY_ON_WRITE = new Function<IRecipe, RecipeView>() {
+		@Override public RecipeView apply(IRecipe input) {
+			return new BasicRecipeView(input, false, true);
+		}
+	};
+	
 	
 
-	protected final boolean strictMatching;
+	protected final boolean strictMatching, copyOnWrite;
 	protected IRecipe oldRecipe = null, recipe;
 	protected boolean hasChange;
 	
 	public BasicRecipeView(IRecipe recipe, boolean strictMatching) {
+		this(recipe, strictMatching, false);
+	}
+	/**
+	 * @param copyOnWrite whether {@link #setOutput} creates a new recipe instead of changing the
+	 * output of the recipe in place
+	 */
+	public BasicRecipeView(IRecipe recipe, boolean strictMatching, boolean copyOnWrite) {
 		this.recipe = recipe;
 		this.strictMatching = strictMatching;
+		this.copyOnWrite = copyOnWrite;
 	}
 	
 	protected boolean compare(Class<? extends IRecipe> child, Class<? extends IRecipe> parent) {
@@ -175,6 +194,12 @@ public class BasicRecipeView implements RecipeView {
 
 	
 	
+	static boolean isPrioritized(IRecipe recipe) {
+		Class<?> c = recipe.getClass();
+		return c == PrioritizedShaped.class || c == PrioritizedShapeless.class
+				|| c == PrioritizedShapedOre.class || c == PrioritizedShapelessOre.class;
+	}
+	
 	private static class PrioritizedShaped extends ShapedRecipes {
 		private PrioritizedShaped(ItemStack out, Matrix<RecipeElement> in) {
 			super(in.width(), in.height(),
@@ -209,6 +234,7 @@ public class BasicRecipeView implements RecipeView {
 		}
 	}
 	
+	// only needed when others sort the whole list, as McCollect keeps prioritized recipes in their own tier
 	static {
 		String beforeShaped = "before:minecraft:shaped";
 		
@@ -232,6 +258,16 @@ public class BasicRecipeView implements RecipeView {
 	@Override public boolean setOutput(ItemStack output) {
 		eraseState();
 		
+		if (copyOnWrite) {
+			hasChange = true;
+			
+			IRecipe temp = recipe;
+			recipe = explicit(recipe, getInputView(), output);
+			oldRecipe = temp;
+			
+			return true;
+		}
+		
 		if (recipe instanceof ShapedRecipes) {
 			hasChange = true;
 			RECIPE_OUTPUT_S.set(recipe, output);
@@ -271,26 +307,68 @@ public class BasicRecipeView implements RecipeView {
 		return getInputView().asMatrix();
 	}
 	@Override public boolean isMirrored() {
-		return getMirrored(recipe);
+		return getInputView().isMirrored();
 	}
 	
 	
 	
+	// decoded inputs shared among the views of a recipe, as views are created on each pass over a list;
+	// the decoded inputs must not refer back to their recipe, or the recipe would never be collected
+	private static final Map<IRecipe, InputView> decodedInputs = new MapMaker().weakKeys().makeMap();
+	
+	private InputView inputView;
+	private IRecipe inputRecipe;
+	
 	protected InputView getInputView() {
+		InputView ret = inputView;
+		
+		if (ret == null || inputRecipe != recipe || !ret.isCurrent(recipe)) {
+			ret = decodedInputs.get(recipe);
+			
+			if (ret == null || !ret.isCurrent(recipe)) {
+				ret = decode(recipe);
+				decodedInputs.put(recipe, ret);
+			}
+			inputView = ret;
+			inputRecipe = recipe;
+		}
+		
+		return ret;
+	}
+	
+	private static Object getInputSource(IRecipe recipe) {
+		if (recipe instanceof ShapedRecipes)
+			return ((ShapedRecipes) recipe).recipeItems;
+		if (recipe instanceof ShapelessRecipes)
+			return ((ShapelessRecipes) recipe).recipeItems;
+		if (recipe instanceof ShapedOreRecipe)
+			return ((ShapedOreRecipe) recipe).getInput();
+		if (recipe instanceof ShapelessOreRecipe)
+			return ((ShapelessOreRecipe) recipe).getInput();
+		throw new IllegalArgumentException();
+	}
+	
+	private static int getInputSize(Object source) {
+		return source instanceof Object[] ? ((Object[]) source).length : ((List<?>) source).size();
+	}
+	
+	private static InputView decode(IRecipe recipe) {
+		Object source = getInputSource(recipe);
+		
 		if (recipe instanceof ShapedRecipes)
-			return new InputView(recipe, Lists.transform(
+			return new InputView(recipe, source, Lists.transform(
 					Arrays.asList(((ShapedRecipes) recipe).recipeItems), fromItemStack()));
 		
 		if (recipe instanceof ShapelessRecipes)
-			return new InputView(recipe, Lists.transform(
+			return new InputView(recipe, source, Lists.transform(
 					castRaw(((ShapelessRecipes) recipe).recipeItems, ItemStack.class), fromItemStack()));
 		
 		if (recipe instanceof ShapedOreRecipe)
-			return new InputView(recipe, Lists.transform(
+			return new InputView(recipe, source, Lists.transform(
 					Arrays.asList(((ShapedOreRecipe) recipe).getInput()), FROM_ORE_RECIPE_INPUT));
 		
 		if (recipe instanceof ShapelessOreRecipe)
-			return new InputView(recipe, Lists.transform(
+			return new InputView(recipe, source, Lists.transform(
 					castRaw(((ShapelessOreRecipe) recipe).getInput()), FROM_ORE_RECIPE_INPUT));
 		
 		throw new IllegalArgumentException();
@@ -332,7 +410,7 @@ public class BasicRecipeView implements RecipeView {
 		hasChange = true;
 		
 		IRecipe temp = recipe;
-		recipe = explicitShapeless(inputs, recipe.getRecipeOutput());
+		recipe = samePriority(recipe, explicitShapeless(inputs, recipe.getRecipeOutput()));
 		oldRecipe = temp;
 		
 		return true;
@@ -342,39 +420,35 @@ public class BasicRecipeView implements RecipeView {
 		hasChange = true;
 		
 		IRecipe temp = recipe;
-		recipe = explicitShaped(
+		recipe = samePriority(recipe, explicitShaped(
 				mirrored, inputs.width(), inputs.height(),
 				ImmutableList.copyOf(Iterables.concat(inputs.rowList())),
-				recipe.getRecipeOutput());
+				recipe.getRecipeOutput()));
 		oldRecipe = temp;
 		
 		return true;
 	}
 	
-	@Override public int hashCode() {
-		Hasher h = Hashing.goodFastHash(32).newHasher()
-				.putInt(asInfo(getOutput()).hashCode());
+	/**
+	 * A 64-bit fingerprint of the output, the category and the inputs, such that equal views always
+	 * have the same fingerprint. Shaped inputs of mirrored recipes are taken in either orientation,
+	 * and shapeless inputs regardless of their order.
+	 */
+	public long fingerprint() {
+		long h = mix(asInfo(getOutput()).hashCode());
 		
 		Category cat = getCategory();
+		h = h * 31 + cat.ordinal();
 		
-		if (cat == SHAPED) {
-			h.putBoolean(false).putBoolean(true);
-			
-			Matrix<RecipeElement> input = getShapedInput();
-			if (isMirrored())
-				h.putInt(input.hashCode() ^ horizontalMirror(input).hashCode());
-			else
-				h.putInt(input.hashCode());
-		}
-		
-		else if (cat == SHAPELESS)
-			h.putBoolean(true).putBoolean(false)
-				.putInt(getShapelessInput().hashCode());
-		
-		else
-			h.putBoolean(false).putBoolean(false);
+		if (cat == SHAPED || cat == SHAPELESS)
+			h ^= getInputView().fingerprint();
 		
-		return h.hash().asInt();
+		return mix(h);
+	}
+	
+	@Override public int hashCode() {
+		long h = fingerprint();
+		return (int) (h ^ h >>> 32);
 	}
 	
 	@Override public boolean equals(Object obj) {
@@ -393,12 +467,12 @@ public class BasicRecipeView implements RecipeView {
 					boolean isMirrored = isMirrored();
 					
 					if (isMirrored && r.isMirrored()) {
-						Matrix<RecipeElement>
-						input = getShapedInput(),
-						rInput = r.getShapedInput();
+						InputMatrix
+						input = getInputView().asMatrix(),
+						rInput = r.getInputView().asMatrix();
 						
 						return input.equals(rInput)
-								|| horizontalMirror(input).equals(rInput);
+								|| input.mirror().equals(rInput);
 					}
 					else if (!isMirrored && !r.isMirrored())
 						return getShapedInput().equals(r.getShapedInput());
@@ -463,7 +537,17 @@ public class BasicRecipeView implements RecipeView {
 	
 	
 	
-	private static boolean getMirrored(IRecipe recipe) {
+	// the finalizer of MurmurHash3
+	private static long mix(long k) {
+		k ^= k >>> 33;
+		k *= 0xff51afd7ed558ccdL;
+		k ^= k >>> 33;
+		k *= 0xc4ceb9fe1a85ec53L;
+		k ^= k >>> 33;
+		return k;
+	}
+	
+	static boolean getMirrored(IRecipe recipe) {
 		if (recipe instanceof ShapedRecipes)
 			return true;
 		if (recipe instanceof ShapedOreRecipe)
@@ -471,7 +555,7 @@ public class BasicRecipeView implements RecipeView {
 		throw new IllegalArgumentException();
 	}
 	
-	private static int getWidth(IRecipe recipe) {
+	static int getWidth(IRecipe recipe) {
 		if (recipe instanceof ShapedRecipes)
 			return ((ShapedRecipes) recipe).recipeWidth;
 		if (recipe instanceof ShapedOreRecipe)
@@ -479,7 +563,7 @@ public class BasicRecipeView implements RecipeView {
 		throw new IllegalArgumentException();
 	}
 	
-	private static int getHeight(IRecipe recipe) {
+	static int getHeight(IRecipe recipe) {
 		if (recipe instanceof ShapedRecipes)
 			return ((ShapedRecipes) recipe).recipeHeight;
 		if (recipe instanceof ShapedOreRecipe)
@@ -489,7 +573,16 @@ public class BasicRecipeView implements RecipeView {
 	
 	
 	
+	// a copy of a prioritized recipe is prioritized as well, so that it is sorted and stored the same way
+	private static IRecipe samePriority(IRecipe original, IRecipe copy) {
+		return isPrioritized(original) ? new BasicRecipeView(copy, true).getPrioritized() : copy;
+	}
+	
 	private static IRecipe explicit(IRecipe original, Collection<RecipeElement> inputs, ItemStack result) {
+		return samePriority(original, explicitPlain(original, inputs, result));
+	}
+	
+	private static IRecipe explicitPlain(IRecipe original, Collection<RecipeElement> inputs, ItemStack result) {
 		if (original instanceof ShapedRecipes) {
 			ShapedRecipes r = (ShapedRecipes) original;
 			return explicitShaped(true, r.recipeWidth, r.recipeHeight, inputs, result);
@@ -511,7 +604,7 @@ public class BasicRecipeView implements RecipeView {
 		throw new IllegalArgumentException();
 	}
 	
-	private static IRecipe explicitShaped(
+	static IRecipe explicitShaped(
 			boolean mirrored, int w, int h, Collection<RecipeElement> inputs, ItemStack result) {
 		if (!mirrored || Iterables.any(inputs, RecipeElement.IS_ORE)) {
 			ShapedOreRecipe r = new ShapedOreRecipe(result, mirrored, ' ', Items.apple);
@@ -525,7 +618,7 @@ public class BasicRecipeView implements RecipeView {
 				Collections2.transform(inputs, TO_ITEM_STACK).toArray(new ItemStack[w * h]), result);
 	}
 	
-	private static IRecipe explicitShapeless(Collection<RecipeElement> inputs, ItemStack result) {
+	static IRecipe explicitShapeless(Collection<RecipeElement> inputs, ItemStack result) {
 		if (Iterables.any(inputs, RecipeElement.IS_ORE)) {
 			ShapelessOreRecipe r = new ShapelessOreRecipe(result);
 			castRaw(r.getInput()).addAll(Collections2.transform(inputs, TO_ORE_RECIPE_INPUT));
@@ -538,19 +631,72 @@ public class BasicRecipeView implements RecipeView {
 	
 	
 	
+	/**
+	 * The inputs of a recipe decoded once into immutable elements, along with the shape of the recipe.
+	 * Changes to the input array or list of the recipe are detected by identity and size only.
+	 */
 	public static class InputView extends DelegateList<RecipeElement> {
-		private final IRecipe recipe;
+		private final Object source;
+		private final int sourceSize;
 		private final List<RecipeElement> delegatee;
-		private InputView(IRecipe recipe, List<RecipeElement> delegatee) {
-			this.recipe = recipe;
-			this.delegatee = Collections.unmodifiableList(delegatee);
+		private final boolean shaped, mirrored;
+		private final int h, w;
+		private InputView(IRecipe recipe, Object source, List<RecipeElement> delegatee) {
+			this.source = source;
+			this.sourceSize = getInputSize(source);
+			this.delegatee = ImmutableList.copyOf(delegatee);
+			
+			shaped = recipe instanceof ShapedRecipes || recipe instanceof ShapedOreRecipe;
+			mirrored = shaped && getMirrored(recipe);
+			h = shaped ? getHeight(recipe) : -1;
+			w = shaped ? getWidth(recipe) : -1;
 		}
 		@Override protected List<RecipeElement> delegatee() {
 			return delegatee;
 		}
 		
+		private boolean isCurrent(IRecipe recipe) {
+			Object source = getInputSource(recipe);
+			return source == this.source && getInputSize(source) == sourceSize;
+		}
+		
+		public boolean isMirrored() {
+			if (!shaped)
+				throw new IllegalArgumentException();
+			return mirrored;
+		}
+		
+		private long fingerprint;
+		private volatile boolean hasFingerprint;
+		private long fingerprint() {
+			if (!hasFingerprint) {
+				if (shaped) {
+					InputMatrix matrix = asMatrix();
+					fingerprint = mirrored ?
+							Math.min(orderedHash(matrix), orderedHash(matrix.mirror())) : orderedHash(matrix);
+					fingerprint = fingerprint * 31 + (mirrored ? 1 : 0);
+				}
+				else {
+					long h = 0;
+					for (RecipeElement e : delegatee)
+						h += mix(e.hashCode());
+					fingerprint = h;
+				}
+				hasFingerprint = true;
+			}
+			return fingerprint;
+		}
+		
+		private static long orderedHash(InputMatrix matrix) {
+			long h = mix(matrix.width() * 31 + matrix.height());
+			for (RecipeElement e : matrix)
+				h = (h ^ mix(e.hashCode())) * 0x9E3779B97F4A7C15L;
+			return h;
+		}
+		
+		private Multiset<RecipeElement> multiset;
 		public Multiset<RecipeElement> copyToMultiset() {
-			return ImmutableMultiset.copyOf(delegatee());
+			return multiset != null ? multiset : (multiset = ImmutableMultiset.copyOf(delegatee()));
 		}
 		
 		private InputMatrix asMatrix;
@@ -558,8 +704,7 @@ public class BasicRecipeView implements RecipeView {
 			if (asMatrix != null)
 				return asMatrix;
 			
-			int h = getHeight(recipe), w = getWidth(recipe);
-			if (w * h > size())
+			if (!shaped || w * h > size())
 				throw new IllegalArgumentException();
 			return asMatrix = new InputMatrix(h, w);
 		}
@@ -583,6 +728,11 @@ public class BasicRecipeView implements RecipeView {
 			@Override public RecipeElement get(int rowIndex, int columnIndex) {
 				return delegatee().get(rowIndex * width() + columnIndex);
 			}
+			private int hashCode;
+			@Override public int hashCode() {
+				// the elements are immutable
+				return hashCode != 0 ? hashCode : (hashCode = super.hashCode());
+			}
 			private List<List<RecipeElement>> rowList;
 			@Override public List<List<RecipeElement>> rowList() {
 				return rowList != null ? rowList : (rowList = Lists.partition(delegatee(), width()));
@@ -593,7 +743,7 @@ public class BasicRecipeView implements RecipeView {
 				return mirror != null ? mirror : (mirror = new InputMatrix(h, w) {
 					
 					@Override public RecipeElement get(int rowIndex, int columnIndex) {
-						return InputMatrix.this.get(width() - rowIndex, columnIndex);
+						return InputMatrix.this.get(rowIndex, width() - 1 - columnIndex);
 					}
 					private List<List<RecipeElement>> rowList;
 					@Override public List<List<RecipeElement>> rowList() {
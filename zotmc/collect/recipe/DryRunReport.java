@@ -0,0 +1,122 @@
+/*
+ * Copyright (c) 2014, Zothf, All rights reserved.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library.
+ */
+
+package zotmc.collect.recipe;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import net.minecraft.item.crafting.IRecipe;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+
+/**
+ * What the changes made through a dry-run {@link RecipeFinder.SearchManager} would do to the recipe
+ * list: the recipes added, removed and rewritten, and the cost of each statement.
+ * 
+ * @author zot
+ */
+public class DryRunReport {
+	
+	public static class Statement {
+		private final String description;
+		private final long nanos;
+		private final int examined, added, removed, rewritten;
+		
+		Statement(String description, long nanos, int examined, RecipeBatch batch) {
+			this.description = description;
+			this.nanos = nanos;
+			this.examined = examined;
+			this.added = batch.additions().size() + batch.prioritizedRecipes().size();
+			this.removed = batch.removals().size();
+			this.rewritten = batch.replacements().size() + batch.rewritten().size();
+		}
+		
+		public String getDescription() {
+			return description;
+		}
+		public long getTime(TimeUnit unit) {
+			return unit.convert(nanos, TimeUnit.NANOSECONDS);
+		}
+		/**
+		 * The number of recipes the statement had to look at.
+		 */
+		public int getExamined() {
+			return examined;
+		}
+		public int getAdded() {
+			return added;
+		}
+		public int getRemoved() {
+			return removed;
+		}
+		public int getRewritten() {
+			return rewritten;
+		}
+		
+		@Override public String toString() {
+			return String.format("%s: %.3f ms, %d examined, +%d -%d ~%d",
+					description, nanos / 1e6, examined, added, removed, rewritten);
+		}
+	}
+	
+	
+	
+	private final List<Statement> statements;
+	private final List<IRecipe> added, removed;
+	private final Map<IRecipe, IRecipe> rewritten;
+	
+	DryRunReport(List<Statement> statements, RecipeBatch changes) {
+		this.statements = ImmutableList.copyOf(statements);
+		added = ImmutableList.<IRecipe>builder()
+				.addAll(changes.prioritizedRecipes())
+				.addAll(changes.additions())
+				.build();
+		removed = ImmutableList.copyOf(changes.removals());
+		rewritten = ImmutableMap.copyOf(changes.replacements());
+	}
+	
+	public List<Statement> getStatements() {
+		return statements;
+	}
+	
+	public List<IRecipe> getAdded() {
+		return added;
+	}
+	public List<IRecipe> getRemoved() {
+		return removed;
+	}
+	/**
+	 * The recipes of the list mapped to the copies that would take their place.
+	 */
+	public Map<IRecipe, IRecipe> getRewritten() {
+		return rewritten;
+	}
+	
+	@Override public String toString() {
+		StringBuilder sb = new StringBuilder(String.format("%d added, %d removed, %d rewritten",
+				added.size(), removed.size(), rewritten.size()));
+		
+		for (Statement s : statements)
+			sb.append(String.format("%n  %s", s));
+		
+		return sb.toString();
+	}
+	
+}
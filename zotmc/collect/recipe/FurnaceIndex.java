@@ -0,0 +1,148 @@
+/*
+ * Copyright (c) 2014, Zothf, All rights reserved.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library.
+ */
+
+package zotmc.collect.recipe;
+
+import java.util.List;
+import java.util.Map;
+
+import net.minecraft.item.Item;
+import net.minecraft.item.ItemStack;
+
+import com.google.common.base.Objects;
+import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ListMultimap;
+
+/**
+ * An index over a furnace map keyed by the unsized item and metadata of each stack keying the map.
+ * The stacks themselves are compared by identity in the map, so the index leads to them instead of
+ * to the values. It is kept in sync by {@link #added} and {@link #removed} for changes made through
+ * McCollect, and rebuilt whenever the map is found to be changed behind its back, by its count of
+ * modifications where available, or else by its size.
+ * 
+ * @author zot
+ */
+class FurnaceIndex {
+	
+	private static final StackKey NULL_KEY = new StackKey(null, Integer.MIN_VALUE);
+	
+	private final Map<ItemStack, ?> raw;
+	private final ListMultimap<StackKey, ItemStack> byKey = ArrayListMultimap.create();
+	private boolean valid;
+	private int modCount, size;
+	
+	FurnaceIndex(Map<ItemStack, ?> raw) {
+		this.raw = raw;
+	}
+	
+	
+	/**
+	 * The stacks keying the map with the item and metadata of the given info, in the order they
+	 * were met. The size and the tag of the info are not compared.
+	 */
+	public synchronized List<ItemStack> get(StackInfo info) {
+		StackKey key = info.isNullItem() ? NULL_KEY : new StackKey(info.item(), info.metadata());
+		
+		validate();
+		List<ItemStack> ret = byKey.get(key);
+		
+		// the stacks are mutable, and may be taken out and put back with the same size
+		for (ItemStack s : ret)
+			if (!key.equals(keyOf(s)) || !raw.containsKey(s)) {
+				rebuild();
+				ret = byKey.get(key);
+				break;
+			}
+		
+		return ImmutableList.copyOf(ret);
+	}
+	
+	/**
+	 * Reflects a stack just put into the map, found absent by {@link #get} before.
+	 */
+	public synchronized void added(ItemStack stack) {
+		if (valid && size + 1 == raw.size()) {
+			byKey.put(keyOf(stack), stack);
+			stamp();
+		}
+		else
+			valid = false;
+	}
+	
+	/**
+	 * Reflects a stack just removed from the map, found by {@link #get} before.
+	 */
+	public synchronized void removed(ItemStack stack) {
+		if (valid && size - 1 == raw.size()) {
+			byKey.remove(keyOf(stack), stack);
+			stamp();
+		}
+		else
+			valid = false;
+	}
+	
+	
+	
+	private void validate() {
+		int modCount = Reflections.modCount(raw);
+		
+		if (!valid || size != raw.size() || modCount >= 0 && modCount != this.modCount)
+			rebuild();
+	}
+	
+	private void rebuild() {
+		byKey.clear();
+		for (ItemStack s : raw.keySet())
+			byKey.put(keyOf(s), s);
+		stamp();
+	}
+	
+	private void stamp() {
+		valid = true;
+		modCount = Reflections.modCount(raw);
+		size = raw.size();
+	}
+	
+	private static StackKey keyOf(ItemStack stack) {
+		return stack == null ? NULL_KEY : new StackKey(stack.getItem(), stack.getItemDamage());
+	}
+	
+	
+	
+	private static class StackKey {
+		private final Item item;
+		private final int metadata;
+		private StackKey(Item item, int metadata) {
+			this.item = item;
+			this.metadata = metadata;
+		}
+		@Override public int hashCode() {
+			return Objects.hashCode(item, metadata);
+		}
+		@Override public boolean equals(Object obj) {
+			if (obj == this)
+				return true;
+			if (obj instanceof StackKey) {
+				StackKey o = (StackKey) obj;
+				return o.item == item && o.metadata == metadata;
+			}
+			return false;
+		}
+	}
+	
+}
@@ -51,14 +51,20 @@ import cpw.mods.fml.common.IFuelHandler;
 public class Furnaces {
 	
 	public static RecipeMap recipes() {
+		RecipeSnapshot.untracked();
+		RegistryLock.acquire();
 		return RECIPES;
 	}
 	
 	public static ExperienceMap experience() {
+		RecipeSnapshot.untracked();
+		RegistryLock.acquire();
 		return EXPERIENCE;
 	}
 	
 	public static FuelFunction fuels() {
+		RecipeSnapshot.untracked();
+		RegistryLock.acquire();
 		return FUELS;
 	}
 	
@@ -66,25 +72,62 @@ public class Furnaces {
 	
 	public static abstract class FurnaceMap<V> extends MapBackingSet<StackInfo, V> {
 		
-		private FurnaceMap(Map<ItemStack, V> raw) {
+		private FurnaceMap(Map<ItemStack, ?> source, Map<ItemStack, V> raw) {
 			this.raw = raw;
+			this.index = new FurnaceIndex(source);
 			
 			final Collection<Entry<StackInfo, V>> backing = Collections2.transform(
 					raw.entrySet(),
 					entryAlterKey(keyTransformation, (V) null));
 			
+			// point lookups go through the index, other operations still iterate the entries
 			this.backing = new IterativeMap<StackInfo, V>() {
 				@Override protected Collection<Entry<StackInfo, V>> backing() {
 					return backing;
 				}
+				@Override public V get(Object key) {
+					List<ItemStack> keys = rawKeys(key);
+					return keys.isEmpty() ? null : raw().get(keys.get(0));
+				}
+				@Override public boolean containsKey(Object key) {
+					return !rawKeys(key).isEmpty();
+				}
+				@Override public V remove(Object key) {
+					List<ItemStack> keys = rawKeys(key);
+					V ret = keys.isEmpty() ? null : raw().get(keys.get(0));
+					for (ItemStack k : keys) {
+						raw().remove(k);
+						index.removed(k);
+					}
+					return ret;
+				}
 				@Override public V put(StackInfo key, V value) {
 					V ret = remove(key);
-					raw().put(key.asItemStack(), value);
+					ItemStack k = key.asItemStack();
+					raw().put(k, value);
+					index.added(k);
 					return ret;
 				}
 			};
 		}
 		
+		private final FurnaceIndex index;
+		
+		/**
+		 * The stacks keying the raw map whose infos equal to the given key.
+		 */
+		private List<ItemStack> rawKeys(Object key) {
+			if (!(key instanceof StackInfo))
+				return ImmutableList.of();
+			
+			// the stacks keying the raw map are seen as unsized and without tags
+			StackInfo info = (StackInfo) key;
+			if (!info.isNullItem() && (info.size() != 1 || !info.equalTag(null)))
+				return ImmutableList.of();
+			
+			return index.get(info);
+		}
+		
 		private final Map<ItemStack, V> raw;
 		protected final Map<ItemStack, V> raw() {
 			return raw;
@@ -142,7 +185,7 @@ public class Furnaces {
 		
 		
 		private RecipeMap() {
-			super(FluentMap.from(
+			super(castRaw(smelting().getSmeltingList(), ItemStack.class, ItemStack.class), FluentMap.from(
 					castRaw(smelting().getSmeltingList(), ItemStack.class, ItemStack.class))
 						.commuteValues(asInfo()));
 		}
@@ -198,7 +241,7 @@ public class Furnaces {
 		
 		
 		private ExperienceMap() {
-			super(EXPERIENCE_LIST);
+			super(EXPERIENCE_LIST, EXPERIENCE_LIST);
 		}
 		
 		public Float put(ItemStack key, Float value) {
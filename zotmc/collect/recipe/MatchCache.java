@@ -0,0 +1,166 @@
+/*
+ * Copyright (c) 2014, Zothf, All rights reserved.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library.
+ */
+
+package zotmc.collect.recipe;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static zotmc.collect.recipe.Reflections.Fields.INVENTORY_WIDTH;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import net.minecraft.inventory.InventoryCrafting;
+import net.minecraft.item.Item;
+import net.minecraft.item.ItemStack;
+import net.minecraft.nbt.NBTTagCompound;
+
+import com.google.common.base.Optional;
+
+/**
+ * A bounded, least-recently-used cache from the contents of crafting grids to the matches found,
+ * or to the absence of a match. Stack sizes are ignored, as the crafting manager does. A grid is
+ * looked up by its width and the item, metadata and tag of every slot, all of which are compared
+ * on a hit.
+ * 
+ * @author zot
+ */
+class MatchCache<V> {
+	
+	private final int capacity;
+	private final Map<GridKey, Optional<V>> cache;
+	private final AtomicLong hits = new AtomicLong(), misses = new AtomicLong(),
+			evictions = new AtomicLong();
+	
+	MatchCache(int capacity) {
+		checkArgument(capacity > 0);
+		this.capacity = capacity;
+		cache = new LinkedHashMap<GridKey, Optional<V>>(16, 0.75F, true) {
+			private static final long serialVersionUID = 1L;
+			
+			@Override protected boolean removeEldestEntry(Map.Entry<GridKey, Optional<V>> eldest) {
+				if (size() <= MatchCache.this.capacity)
+					return false;
+				evictions.incrementAndGet();
+				return true;
+			}
+		};
+	}
+	
+	/**
+	 * Returns the cached result for the key, or null if there is none.
+	 */
+	Optional<V> get(GridKey key) {
+		Optional<V> ret;
+		synchronized (cache) {
+			ret = cache.get(key);
+		}
+		(ret != null ? hits : misses).incrementAndGet();
+		return ret;
+	}
+	
+	void put(GridKey key, V match) {
+		synchronized (cache) {
+			cache.put(key, Optional.fromNullable(match));
+		}
+	}
+	
+	void invalidate() {
+		synchronized (cache) {
+			cache.clear();
+		}
+	}
+	
+	
+	int capacity() {
+		return capacity;
+	}
+	long hitCount() {
+		return hits.get();
+	}
+	long missCount() {
+		return misses.get();
+	}
+	long evictionCount() {
+		return evictions.get();
+	}
+	
+	@Override public String toString() {
+		int size;
+		synchronized (cache) {
+			size = cache.size();
+		}
+		return String.format("%d of %d grids cached, %d hits, %d misses, %d evictions",
+				size, capacity, hitCount(), missCount(), evictionCount());
+	}
+	
+	
+	
+	/**
+	 * The width of a grid, and the item, metadata and tag of each of its slots. Tags are copied,
+	 * so that the key is not affected by later changes to the stacks.
+	 */
+	static class GridKey {
+		private final int width;
+		private final Item[] items;
+		private final int[] metadata;
+		private final NBTTagCompound[] tags;
+		private final int hash;
+		
+		GridKey(InventoryCrafting grid) {
+			int size = grid.getSizeInventory();
+			width = INVENTORY_WIDTH.get(grid);
+			items = new Item[size];
+			metadata = new int[size];
+			tags = new NBTTagCompound[size];
+			
+			int hash = size * 31 + width;
+			for (int i = 0; i < size; i++) {
+				ItemStack item = grid.getStackInSlot(i);
+				if (item != null) {
+					items[i] = item.getItem();
+					metadata[i] = item.getItemDamage();
+					if (item.stackTagCompound != null)
+						tags[i] = (NBTTagCompound) item.stackTagCompound.copy();
+				}
+				hash = hash * 31 + System.identityHashCode(items[i]);
+				hash = hash * 31 + metadata[i];
+				hash = hash * 31 + (tags[i] == null ? 0 : tags[i].hashCode());
+			}
+			this.hash = hash;
+		}
+		
+		@Override public int hashCode() {
+			return hash;
+		}
+		
+		@Override public boolean equals(Object obj) {
+			if (obj == this)
+				return true;
+			if (obj instanceof GridKey) {
+				GridKey o = (GridKey) obj;
+				return o.hash == hash && o.width == width
+						&& Arrays.equals(o.items, items)
+						&& Arrays.equals(o.metadata, metadata)
+						&& Arrays.equals(o.tags, tags);
+			}
+			return false;
+		}
+	}
+	
+}
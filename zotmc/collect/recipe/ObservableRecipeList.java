@@ -0,0 +1,286 @@
+/*
+ * Copyright (c) 2014, Zothf, All rights reserved.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library.
+ */
+
+package zotmc.collect.recipe;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static org.apache.logging.log4j.Level.WARN;
+import static zotmc.collect.forge.McCollectInit.NAME;
+import static zotmc.collect.recipe.Reflections.Fields.RECIPES;
+
+import java.util.AbstractList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.Set;
+
+import net.minecraft.item.crafting.CraftingManager;
+import net.minecraft.item.crafting.IRecipe;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.ObjectArrays;
+
+import cpw.mods.fml.common.FMLLog;
+
+/**
+ * A recipe list that notifies its listeners of every element added, removed or replaced, whether
+ * the change comes from McCollect or from anyone holding the list. Installed in place of the list
+ * of the {@link CraftingManager}, and backed by the original list.
+ * 
+ * <p>The list is the concatenation of two tiers: the recipes {@linkplain #prioritize prioritized}
+ * by McCollect, followed by the original list.
+ * 
+ * @author zot
+ */
+public class ObservableRecipeList extends AbstractList<IRecipe> implements RandomAccess {
+	
+	public interface Listener {
+		public void onAdd(IRecipe recipe);
+		public void onRemove(IRecipe recipe);
+		public void onSet(IRecipe oldRecipe, IRecipe recipe);
+	}
+	
+	
+	private static volatile boolean failed;
+	
+	/**
+	 * Installs the wrapper over the recipe list of the crafting manager if not yet installed.
+	 * Returns the raw list if the wrapper cannot be installed.
+	 */
+	@SuppressWarnings("unchecked")
+	static List<IRecipe> install() {
+		List<IRecipe> recipes = CraftingManager.getInstance().getRecipeList();
+		return recipes instanceof ObservableRecipeList || failed ? recipes : doInstall();
+	}
+	
+	@SuppressWarnings("unchecked")
+	private static synchronized List<IRecipe> doInstall() {
+		CraftingManager manager = CraftingManager.getInstance();
+		List<IRecipe> recipes = manager.getRecipeList();
+		
+		if (recipes instanceof ObservableRecipeList || failed)
+			return recipes;
+		
+		try {
+			ObservableRecipeList ret = new ObservableRecipeList(recipes);
+			RECIPES.set(manager, ret);
+			return ret;
+			
+		} catch (RuntimeException e) {
+			failed = true;
+			FMLLog.log(WARN, e, "[%s] Unable to observe the crafting recipe list", NAME);
+			return recipes;
+		}
+	}
+	
+	
+	
+	private final List<IRecipe> delegatee;
+	// the tier in front of the delegatee, kept in reverse so that prepending costs only the recipes prepended
+	private final List<IRecipe> prioritized = Lists.newArrayList();
+	private volatile Listener[] listeners = new Listener[0];
+	
+	private ObservableRecipeList(List<IRecipe> delegatee) {
+		this.delegatee = checkNotNull(delegatee);
+	}
+	
+	public synchronized void addListener(Listener listener) {
+		listeners = ObjectArrays.concat(listeners, checkNotNull(listener));
+	}
+	public synchronized void removeListener(Listener listener) {
+		List<Listener> list = Lists.newArrayList(listeners);
+		if (list.remove(listener))
+			listeners = list.toArray(new Listener[list.size()]);
+	}
+	
+	int modCount() {
+		return modCount;
+	}
+	
+	
+	/**
+	 * Inserts the recipes at the front of the list, in their order, ahead of all the recipes
+	 * prioritized before. Recipes in this tier stay ahead of the others however the list is
+	 * sorted by {@link #sort}.
+	 */
+	public void prioritize(Collection<? extends IRecipe> recipes) {
+		List<IRecipe> added = Lists.newArrayList(recipes);
+		if (added.isEmpty())
+			return;
+		
+		prioritized.addAll(Lists.reverse(added));
+		modCount++;
+		
+		Listener[] listeners = this.listeners;
+		for (IRecipe r : added)
+			for (Listener l : listeners)
+				l.onAdd(r);
+	}
+	
+	/**
+	 * Removes and replaces the recipes, matched by identity, in a single pass over each tier.
+	 */
+	void rewrite(Set<IRecipe> removals, Map<IRecipe, IRecipe> replacements) {
+		List<IRecipe> removed = Lists.newArrayList(), replaced = Lists.newArrayList();
+		rewrite(prioritized, removals, replacements, removed, replaced);
+		rewrite(delegatee, removals, replacements, removed, replaced);
+		if (removed.isEmpty() && replaced.isEmpty())
+			return;
+		
+		modCount++;
+		
+		Listener[] listeners = this.listeners;
+		for (IRecipe r : removed)
+			for (Listener l : listeners)
+				l.onRemove(r);
+		for (IRecipe r : replaced)
+			for (Listener l : listeners)
+				l.onSet(r, replacements.get(r));
+	}
+	
+	private static void rewrite(List<IRecipe> tier, Set<IRecipe> removals,
+			Map<IRecipe, IRecipe> replacements, List<IRecipe> removed, List<IRecipe> replaced) {
+		int size = tier.size(), w = 0;
+		
+		for (int i = 0; i < size; i++) {
+			IRecipe r = tier.get(i);
+			if (removals.contains(r)) {
+				removed.add(r);
+				continue;
+			}
+			
+			IRecipe s = replacements.get(r);
+			if (s != null) {
+				replaced.add(r);
+				tier.set(w, s);
+			}
+			else if (w != i)
+				tier.set(w, r);
+			w++;
+		}
+		
+		tier.subList(w, size).clear();
+	}
+	
+	public int prioritizedSize() {
+		return prioritized.size();
+	}
+	
+	/**
+	 * Stable-sorts each tier on its own, so that the prioritized recipes do not depend on the
+	 * comparator to stay in front.
+	 */
+	public void sort(Comparator<? super IRecipe> comparator) {
+		Collections.sort(Lists.reverse(prioritized), comparator);
+		Collections.sort(delegatee, comparator);
+		modCount++;
+	}
+	
+	
+	
+	@Override public IRecipe get(int index) {
+		int p = prioritized.size();
+		return index < p ? prioritized.get(p - 1 - index) : delegatee.get(index - p);
+	}
+	
+	@Override public int size() {
+		return prioritized.size() + delegatee.size();
+	}
+	
+	
+	@Override public IRecipe set(int index, IRecipe element) {
+		int p = prioritized.size();
+		IRecipe ret = index < p ?
+				prioritized.set(p - 1 - index, element) : delegatee.set(index - p, element);
+		modCount++;
+		
+		for (Listener l : listeners)
+			l.onSet(ret, element);
+		return ret;
+	}
+	
+	@Override public void add(int index, IRecipe element) {
+		int p = prioritized.size();
+		if (index < p)
+			prioritized.add(p - index, element);
+		else
+			delegatee.add(index - p, element);
+		modCount++;
+		
+		for (Listener l : listeners)
+			l.onAdd(element);
+	}
+	
+	@Override public IRecipe remove(int index) {
+		int p = prioritized.size();
+		IRecipe ret = index < p ? prioritized.remove(p - 1 - index) : delegatee.remove(index - p);
+		modCount++;
+		
+		for (Listener l : listeners)
+			l.onRemove(ret);
+		return ret;
+	}
+	
+	@Override public boolean addAll(Collection<? extends IRecipe> c) {
+		return addAll(size(), c);
+	}
+	
+	@Override public boolean addAll(int index, Collection<? extends IRecipe> c) {
+		List<IRecipe> added = Lists.newArrayList(c);
+		if (added.isEmpty())
+			return false;
+		
+		int p = prioritized.size();
+		if (index < p)
+			prioritized.addAll(p - index, Lists.reverse(added));
+		else
+			delegatee.addAll(index - p, added);
+		modCount++;
+		
+		Listener[] listeners = this.listeners;
+		for (IRecipe r : added)
+			for (Listener l : listeners)
+				l.onAdd(r);
+		return true;
+	}
+	
+	@Override protected void removeRange(int fromIndex, int toIndex) {
+		int p = prioritized.size();
+		List<IRecipe> removed = Lists.newArrayList();
+		
+		if (fromIndex < p) {
+			List<IRecipe> range = prioritized.subList(p - Math.min(toIndex, p), p - fromIndex);
+			removed.addAll(Lists.reverse(range));
+			range.clear();
+		}
+		if (toIndex > p) {
+			List<IRecipe> range = delegatee.subList(Math.max(fromIndex, p) - p, toIndex - p);
+			removed.addAll(range);
+			range.clear();
+		}
+		modCount++;
+		
+		Listener[] listeners = this.listeners;
+		for (IRecipe r : removed)
+			for (Listener l : listeners)
+				l.onRemove(r);
+	}
+	
+}
@@ -29,21 +29,36 @@ import net.minecraftforge.oredict.OreDictionary;
 public class OreDicts {
 	
 	public static void register(String name, Item item) {
+		RecipeSnapshot.untracked();
+		RegistryLock.acquire();
 		OreDictionary.registerOre(name, item);
 	}
 	public static void register(String name, ItemStack item) {
+		RecipeSnapshot.untracked();
+		RegistryLock.acquire();
 		OreDictionary.registerOre(name, item);
 	}
 	
 	public static ArrayList<ItemStack> getOres(String name) {
-		return OreDictionary.getOres(name);
+		// registers the name if absent
+		boolean entered = RegistryLock.enter();
+		try {
+			return OreDictionary.getOres(name);
+		} finally {
+			RegistryLock.exit(entered);
+		}
 	}
 	
 	static String name(ArrayList<ItemStack> ore) {
-		for (Entry<Integer, ArrayList<ItemStack>> entry : ORE_STACKS.entrySet())
-			if (entry.getValue() == ore)
-				return OreDictionary.getOreName(entry.getKey());
-		return null;
+		boolean entered = RegistryLock.enter();
+		try {
+			for (Entry<Integer, ArrayList<ItemStack>> entry : ORE_STACKS.entrySet())
+				if (entry.getValue() == ore)
+					return OreDictionary.getOreName(entry.getKey());
+			return null;
+		} finally {
+			RegistryLock.exit(entered);
+		}
 	}
 
 }
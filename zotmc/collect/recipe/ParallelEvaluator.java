@@ -0,0 +1,98 @@
+/*
+ * Copyright (c) 2014, Zothf, All rights reserved.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library.
+ */
+
+package zotmc.collect.recipe;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+import net.minecraft.item.crafting.IRecipe;
+
+import com.google.common.base.Function;
+import com.google.common.base.Predicate;
+import com.google.common.collect.Lists;
+
+/**
+ * Filters recipes with a fork-join pool, keeping the results in the order of the recipes.
+ * The factory and the predicate must be safe to be called from multiple threads.
+ * 
+ * @author zot
+ */
+class ParallelEvaluator {
+	
+	/**
+	 * Lists shorter than this are not worth splitting.
+	 */
+	static final int THRESHOLD = 1024;
+	
+	private static final int LEAF_SIZE = 256;
+	
+	private static ForkJoinPool pool;
+	
+	private static synchronized ForkJoinPool pool() {
+		return pool != null ? pool : (pool = new ForkJoinPool());
+	}
+	
+	
+	public static List<RecipeView> filter(IRecipe[] recipes,
+			Function<IRecipe, RecipeView> factory, Predicate<RecipeView> filter) {
+		
+		return pool().invoke(new Task(recipes, 0, recipes.length, factory, filter));
+	}
+	
+	
+	private static class Task extends RecursiveTask<List<RecipeView>> {
+		private static final long serialVersionUID = 1L;
+		
+		private final IRecipe[] recipes;
+		private final int from, to;
+		private final Function<IRecipe, RecipeView> factory;
+		private final Predicate<RecipeView> filter;
+		
+		private Task(IRecipe[] recipes, int from, int to,
+				Function<IRecipe, RecipeView> factory, Predicate<RecipeView> filter) {
+			this.recipes = recipes;
+			this.from = from;
+			this.to = to;
+			this.factory = factory;
+			this.filter = filter;
+		}
+		
+		@Override protected List<RecipeView> compute() {
+			if (to - from <= LEAF_SIZE) {
+				List<RecipeView> ret = Lists.newArrayList();
+				for (int i = from; i < to; i++) {
+					RecipeView r = factory.apply(recipes[i]);
+					if (filter.apply(r))
+						ret.add(r);
+				}
+				return ret;
+			}
+			
+			int mid = (from + to) >>> 1;
+			Task left = new Task(recipes, from, mid, factory, filter);
+			Task right = new Task(recipes, mid, to, factory, filter);
+			
+			right.fork();
+			List<RecipeView> ret = left.compute();
+			ret.addAll(right.join());
+			return ret;
+		}
+	}
+	
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright (c) 2014, Zothf, All rights reserved.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library.
+ */
+
+package zotmc.collect.recipe;
+
+/**
+ * Counts the queries evaluated, the recipes examined and the recipes changed by the search managers
+ * on the calling thread, from {@link #start()} until {@link #stop()}.
+ * 
+ * @author zot
+ */
+public class QueryCounter {
+	
+	private static final ThreadLocal<QueryCounter> current = new ThreadLocal<QueryCounter>();
+	
+	private int queries, mutated;
+	private long examined;
+	
+	private QueryCounter() { }
+	
+	public static QueryCounter start() {
+		QueryCounter ret = new QueryCounter();
+		current.set(ret);
+		return ret;
+	}
+	
+	public void stop() {
+		if (current.get() == this)
+			current.remove();
+	}
+	
+	
+	static void query(int examined) {
+		QueryCounter c = current.get();
+		if (c != null) {
+			c.queries++;
+			c.examined += examined;
+		}
+	}
+	
+	static void commit(RecipeBatch batch) {
+		QueryCounter c = current.get();
+		if (c != null)
+			c.mutated += batch.removals().size() + batch.replacements().size() + batch.rewritten().size()
+					+ batch.additions().size() + batch.prioritizedRecipes().size();
+	}
+	
+	
+	public int getQueries() {
+		return queries;
+	}
+	public long getExamined() {
+		return examined;
+	}
+	/**
+	 * The number of recipes added, removed or rewritten.
+	 */
+	public int getMutated() {
+		return mutated;
+	}
+	
+}
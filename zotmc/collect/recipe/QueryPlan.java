@@ -0,0 +1,174 @@
+/*
+ * Copyright (c) 2014, Zothf, All rights reserved.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library.
+ */
+
+package zotmc.collect.recipe;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.Collection;
+import java.util.List;
+
+import net.minecraft.item.ItemStack;
+import net.minecraft.item.crafting.IRecipe;
+
+import com.google.common.base.Function;
+import com.google.common.base.Predicate;
+import com.google.common.base.Predicates;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Ordering;
+
+/**
+ * How a query is evaluated: the candidate recipes, which may be drawn from an index answering one
+ * of the criteria, and the criteria to be checked on each candidate, cheapest first.
+ * 
+ * @author zot
+ */
+class QueryPlan {
+	
+	enum Cost {
+		CLASS_CHECK		("class check"),
+		OUTPUT_COMPARE	("output compare"),
+		INPUT_DECODE	("input decode");
+		
+		private final String name;
+		private Cost(String name) {
+			this.name = name;
+		}
+		@Override public String toString() {
+			return name;
+		}
+	}
+	
+	/**
+	 * A single criterion of a query. The keys, if present, allow an index to answer a superset of the
+	 * recipes satisfying the criterion.
+	 */
+	static class Criterion {
+		final String description;
+		final Cost cost;
+		final Predicate<RecipeView> predicate;
+		final ItemStack output;
+		final Iterable<RecipeElement> inputs;
+		
+		private Criterion(String description, Cost cost, Predicate<RecipeView> predicate,
+				ItemStack output, Iterable<RecipeElement> inputs) {
+			this.description = description;
+			this.cost = cost;
+			this.predicate = checkNotNull(predicate);
+			this.output = output;
+			this.inputs = inputs;
+		}
+		
+		static Criterion of(String description, Cost cost, Predicate<RecipeView> predicate) {
+			return new Criterion(description, cost, predicate, null, null);
+		}
+		static Criterion ofOutput(String description, Predicate<RecipeView> predicate, ItemStack output) {
+			return new Criterion(description, Cost.OUTPUT_COMPARE, predicate, checkNotNull(output), null);
+		}
+		static Criterion ofInputs(String description, Predicate<RecipeView> predicate,
+				Iterable<RecipeElement> inputs) {
+			return new Criterion(description, Cost.INPUT_DECODE, predicate, null, checkNotNull(inputs));
+		}
+		
+		boolean isIndexed() {
+			return output != null || inputs != null;
+		}
+		
+		@Override public String toString() {
+			return String.format("%s [%s]", description, cost);
+		}
+	}
+	
+	static final Criterion APPLICABLE = Criterion.of("applicable", Cost.CLASS_CHECK,
+			new Predicate<RecipeView>() {
+				@Override public boolean apply(RecipeView input) {
+					return input.isApplicable();
+				}
+			});
+	
+	private static final Function<Criterion, Cost> GET_COST = new Function<Criterion, Cost>() {
+		@Override public Cost apply(Criterion input) {
+			return input.cost;
+		}
+	};
+	private static final Function<Criterion, Predicate<RecipeView>> GET_PREDICATE =
+			new Function<Criterion, Predicate<RecipeView>>() {
+		@Override public Predicate<RecipeView> apply(Criterion input) {
+			return input.predicate;
+		}
+	};
+	
+	
+	
+	private final Collection<IRecipe> source;
+	private final Criterion indexed;
+	private final int estimate, total;
+	private final List<Criterion> criteria;
+	private final Predicate<RecipeView> predicate;
+	
+	/**
+	 * @param indexed the criterion answered by an index to produce the source, or null if the source
+	 * is the whole recipe list
+	 */
+	QueryPlan(Collection<IRecipe> source, Criterion indexed, int estimate, int total,
+			List<Criterion> criteria) {
+		this.source = source;
+		this.indexed = indexed;
+		this.estimate = estimate;
+		this.total = total;
+		this.criteria = ImmutableList.<Criterion>builder()
+				.add(APPLICABLE)
+				.addAll(Ordering.natural().onResultOf(GET_COST).sortedCopy(criteria))
+				.build();
+		predicate = Predicates.and(Lists.transform(this.criteria, GET_PREDICATE));
+	}
+	
+	public Collection<IRecipe> getSource() {
+		return source;
+	}
+	
+	/**
+	 * All the criteria in the order of evaluation, including the one answered by the index,
+	 * which only narrows the candidates down.
+	 */
+	public Predicate<RecipeView> getPredicate() {
+		return predicate;
+	}
+	
+	public double getSelectivity() {
+		return total == 0 ? 1 : (double) estimate / total;
+	}
+	
+	@Override public String toString() {
+		StringBuilder sb = new StringBuilder();
+		
+		if (indexed == null)
+			sb.append(String.format("scan all %d recipes", total));
+		else
+			sb.append(String.format("%s index on \"%s\": ~%d of %d recipes (%.2f%%)",
+					indexed.output != null ? "output" : "input",
+					indexed.description, estimate, total, getSelectivity() * 100));
+		
+		int i = 0;
+		for (Criterion c : criteria)
+			sb.append(String.format("%n  %d. %s", ++i, c));
+		
+		return sb.toString();
+	}
+	
+}
@@ -0,0 +1,164 @@
+/*
+ * Copyright (c) 2014, Zothf, All rights reserved.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library.
+ */
+
+package zotmc.collect.recipe;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.Set;
+
+import net.minecraft.item.crafting.IRecipe;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+
+/**
+ * A set of changes to a recipe list that is applied in a single pass over the list, matching
+ * recipes by identity. A replacement takes the position of the recipe it replaces, while additions
+ * are appended to the end and prioritized recipes are inserted at the front.
+ * 
+ * @author zot
+ */
+class RecipeBatch {
+	
+	private final Set<IRecipe> removals = Sets.newIdentityHashSet();
+	private final Map<IRecipe, IRecipe> replacements = Maps.newIdentityHashMap();
+	private final List<IRecipe> additions = Lists.newArrayList(), prioritized = Lists.newArrayList();
+	private final Set<IRecipe> rewrites = Sets.newIdentityHashSet();
+	
+	
+	public RecipeBatch remove(IRecipe recipe) {
+		removals.add(recipe);
+		return this;
+	}
+	public RecipeBatch replace(IRecipe oldRecipe, IRecipe recipe) {
+		replacements.put(oldRecipe, recipe);
+		return this;
+	}
+	public RecipeBatch add(IRecipe recipe) {
+		additions.add(recipe);
+		return this;
+	}
+	public RecipeBatch addFirst(IRecipe recipe) {
+		prioritized.add(recipe);
+		return this;
+	}
+	/**
+	 * Marks a recipe kept in the list but having its contents changed in place.
+	 */
+	public RecipeBatch rewrite(IRecipe recipe) {
+		rewrites.add(recipe);
+		return this;
+	}
+	
+	
+	public boolean isEmpty() {
+		return removals.isEmpty() && replacements.isEmpty()
+				&& additions.isEmpty() && prioritized.isEmpty() && rewrites.isEmpty();
+	}
+	
+	public Collection<IRecipe> removed() {
+		return ImmutableList.<IRecipe>builder()
+				.addAll(removals)
+				.addAll(replacements.keySet())
+				.build();
+	}
+	public Collection<IRecipe> added() {
+		return ImmutableList.<IRecipe>builder()
+				.addAll(prioritized)
+				.addAll(replacements.values())
+				.addAll(additions)
+				.build();
+	}
+	public Collection<IRecipe> rewritten() {
+		return ImmutableList.copyOf(rewrites);
+	}
+	
+	Set<IRecipe> removals() {
+		return Collections.unmodifiableSet(removals);
+	}
+	Map<IRecipe, IRecipe> replacements() {
+		return Collections.unmodifiableMap(replacements);
+	}
+	List<IRecipe> additions() {
+		return Collections.unmodifiableList(additions);
+	}
+	List<IRecipe> prioritizedRecipes() {
+		return Collections.unmodifiableList(prioritized);
+	}
+	
+	
+	
+	public void applyTo(List<IRecipe> recipes) {
+		if (recipes instanceof ObservableRecipeList) {
+			// keeps each recipe in its own tier
+			ObservableRecipeList tiers = (ObservableRecipeList) recipes;
+			tiers.rewrite(removals, replacements);
+			tiers.prioritize(prioritized);
+			tiers.addAll(additions);
+			return;
+		}
+		
+		if (!removals.isEmpty() || !replacements.isEmpty()) {
+			if (recipes instanceof RandomAccess) {
+				int size = recipes.size(), w = 0;
+				
+				for (int i = 0; i < size; i++) {
+					IRecipe r = recipes.get(i);
+					if (removals.contains(r))
+						continue;
+					
+					IRecipe s = replacements.get(r);
+					if (s != null)
+						recipes.set(w, s);
+					else if (w != i)
+						recipes.set(w, r);
+					w++;
+				}
+				
+				recipes.subList(w, size).clear();
+			}
+			
+			else {
+				ListIterator<IRecipe> ite = recipes.listIterator();
+				
+				while (ite.hasNext()) {
+					IRecipe r = ite.next();
+					if (removals.contains(r))
+						ite.remove();
+					else {
+						IRecipe s = replacements.get(r);
+						if (s != null)
+							ite.set(s);
+					}
+				}
+			}
+		}
+		
+		if (!prioritized.isEmpty())
+			recipes.addAll(0, prioritized);
+		if (!additions.isEmpty())
+			recipes.addAll(additions);
+	}
+	
+}
@@ -36,8 +36,6 @@ import com.google.common.base.Strings;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 
-import cpw.mods.fml.common.registry.GameRegistry;
-
 /**
  * A recipe builder designed to form chains only. The caller of a method may or may not receive the change
  * from the call. Always use the returned object to process further changes.
@@ -127,7 +125,7 @@ public class RecipeBuilder {
 	protected abstract class AbstractBuilder {
 		public abstract IRecipe build();
 		public void addCraftingRecipe() {
-			GameRegistry.addRecipe(build());
+			RecipeFinder.addRecipe(build());
 		}
 	}
 	
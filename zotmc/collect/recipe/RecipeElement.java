@@ -56,38 +56,57 @@ public class RecipeElement {
 	public static int W = OreDictionary.WILDCARD_VALUE, WILDCARD_VALUE = W;
 	
 
-	public static FluentPredicate<RecipeElement> equalTo(final Item item) {
+	public static EqualTo equalTo(final Item item) {
 		checkNotNull(item);
-		return new FluentPredicate<RecipeElement>() {
+		return new EqualTo(new RecipeElement(item)) {
 			@Override public boolean apply(RecipeElement input) {
 				return input.item == item && input.metadata == 0;
 			}
 		};
 	}
-	public static FluentPredicate<RecipeElement> equalTo(Block block) {
+	public static EqualTo equalTo(Block block) {
 		final Item item = asItem(block);
-		return new FluentPredicate<RecipeElement>() {
+		return new EqualTo(new RecipeElement(item)) {
 			@Override public boolean apply(RecipeElement input) {
 				return input.item == item && input.metadata == 0;
 			}
 		};
 	}
-	public static FluentPredicate<RecipeElement> equalTo(String ore) {
+	public static EqualTo equalTo(String ore) {
 		final ArrayList<ItemStack> list = OreDicts.getOres(ore);
-		return new FluentPredicate<RecipeElement>() {
+		return new EqualTo(new RecipeElement(list)) {
 			@Override public boolean apply(RecipeElement input) {
 				return input.isOre() && input.ore == list;
 			}
 		};
 	}
-	public static FluentPredicate<RecipeElement> equalTo(final ItemStack item) {
+	public static EqualTo equalTo(final ItemStack item) {
 		checkNotNull(item);
-		return new FluentPredicate<RecipeElement>() {
+		return new EqualTo(new RecipeElement(item.getItem(), item.getItemDamage())) {
 			@Override public boolean apply(RecipeElement input) {
 				return input.item == item.getItem() && input.metadata == item.getItemDamage();
 			}
 		};
 	}
+	
+	/**
+	 * A predicate accepting exactly the elements it iterates over, which allows it to be answered
+	 * by an index of recipe inputs.
+	 */
+	public interface Enumerated extends Predicate<RecipeElement>, Iterable<RecipeElement> { }
+	
+	public static abstract class EqualTo extends FluentPredicate<RecipeElement> implements Enumerated {
+		private final RecipeElement element;
+		private EqualTo(RecipeElement element) {
+			this.element = element;
+		}
+		@Override public Iterator<RecipeElement> iterator() {
+			return Iterators.singletonIterator(element);
+		}
+		@Override public String toString() {
+			return element.toString();
+		}
+	}
 
 	public static Vague vague(Block block) {
 		return vague(asItem(block));
@@ -96,7 +115,7 @@ public class RecipeElement {
 		return new Vague(item);
 	}
 	
-	public static class Vague implements Predicate<RecipeElement>, Iterable<RecipeElement> {
+	public static class Vague implements Enumerated {
 		private final Item item;
 		private Vague(Item item) {
 			this.item = item;
@@ -107,6 +126,9 @@ public class RecipeElement {
 		@Override public boolean apply(RecipeElement input) {
 			return input.item == item && (input.metadata == WILDCARD_VALUE || input.metadata == 0);
 		}
+		@Override public String toString() {
+			return "vague " + new RecipeElement(item);
+		}
 		
 		public Iterable<ItemStack> items() {
 			return new Iterable<ItemStack>() {
@@ -164,7 +186,8 @@ public class RecipeElement {
 	public static final RecipeElement NULL_ELEMENT = new RecipeElement((ItemStack) null);
 	
 	@Override public int hashCode() {
-		return Objects.hashCode(item, metadata, ore);
+		// ore lists are compared by identity and may grow, so they are not hashed by their contents
+		return Objects.hashCode(item, metadata, System.identityHashCode(ore));
 	}
 	@Override public boolean equals(Object obj) {
 		if (obj == this)
@@ -17,38 +17,48 @@
 
 package zotmc.collect.recipe;
 
+import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
 import static com.google.common.collect.Collections2.filter;
 import static com.google.common.collect.Collections2.transform;
-import static zotmc.collect.FluentPredicate.alwaysTrue;
 import static zotmc.collect.Matrixs.horizontalMirror;
 
+import java.util.AbstractCollection;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
 
 import net.minecraft.block.Block;
+import net.minecraft.inventory.InventoryCrafting;
 import net.minecraft.item.Item;
 import net.minecraft.item.ItemStack;
-import net.minecraft.item.crafting.CraftingManager;
 import net.minecraft.item.crafting.IRecipe;
+import net.minecraft.world.World;
+import net.minecraftforge.oredict.RecipeSorter;
 import net.minecraftforge.oredict.RecipeSorter.Category;
-import zotmc.collect.FluentPredicate;
 import zotmc.collect.Matrix;
+import zotmc.collect.recipe.QueryPlan.Cost;
+import zotmc.collect.recipe.QueryPlan.Criterion;
+import zotmc.collect.recipe.RecipeElement.Enumerated;
 import zotmc.collect.recipe.RecipeFinder.SearchManager.Filtered;
 import zotmc.collect.recipe.RecipeFinder.SearchManager.SizeUndetermined;
 import zotmc.collect.recipe.RecipeFinder.SearchManager.SizedSizeUndetermined;
 
 import com.google.common.base.Function;
+import com.google.common.base.Functions;
+import com.google.common.base.Joiner;
 import com.google.common.base.Objects;
 import com.google.common.base.Predicate;
 import com.google.common.base.Predicates;
-import com.google.common.collect.FluentIterable;
+import com.google.common.collect.ArrayListMultimap;
 import com.google.common.collect.HashMultiset;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Iterators;
+import com.google.common.collect.ListMultimap;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Multiset;
 import com.google.common.collect.Sets;
@@ -56,44 +66,134 @@ import com.google.common.collect.Sets;
 public class RecipeFinder {
 	
 	private static final SearchManager _default = new SearchManager();
+	private static final RecipeMatcher _matcher = new RecipeMatcher();
+	private static final ThreadLocal<SearchManager> _current = new ThreadLocal<SearchManager>();
+	
+	/**
+	 * The manager the static methods of this class are routed to on the calling thread.
+	 */
+	public static SearchManager current() {
+		SearchManager ret = _current.get();
+		return ret != null ? ret : _default;
+	}
+	/**
+	 * Routes the static methods of this class on the calling thread to the manager, or back to the
+	 * default one if null.
+	 */
+	public static void setCurrent(SearchManager manager) {
+		if (manager == null)
+			_current.remove();
+		else
+			_current.set(manager);
+	}
 	
 	
 	public static SizeUndetermined forResult(Item item) {
-		return _default.forResult(item);
+		return current().forResult(item);
 	}
 	public static SizeUndetermined forResult(Item item, Function<IRecipe, RecipeView> factory) {
-		return _default.forResult(item, factory);
+		return current().forResult(item, factory);
 	}
 	
 	public static SizeUndetermined forResult(Block block) {
-		return _default.forResult(block);
+		return current().forResult(block);
 	}
 	public static SizeUndetermined forResult(Block block, Function<IRecipe, RecipeView> factory) {
-		return _default.forResult(block, factory);
+		return current().forResult(block, factory);
 	}
 
 	public static SizedSizeUndetermined forResult(ItemStack item) {
-		return _default.forResult(item);
+		return current().forResult(item);
 	}
 	public static SizedSizeUndetermined forResult(ItemStack item, Function<IRecipe, RecipeView> factory) {
-		return _default.forResult(item, factory);
+		return current().forResult(item, factory);
 	}
 	
 	public static Filtered forResult(Predicate<ItemStack> filter) {
-		return _default.forResult(filter);
+		return current().forResult(filter);
 	}
 	public static Filtered forResult(Predicate<ItemStack> filter, Function<IRecipe, RecipeView> factory) {
-		return _default.forResult(filter, factory);
+		return current().forResult(filter, factory);
+	}
+	
+	
+	public static Filtered using(Item item) {
+		return current().using(item);
+	}
+	public static Filtered using(Block block) {
+		return current().using(block);
+	}
+	public static Filtered using(String ore) {
+		return current().using(ore);
+	}
+	public static Filtered using(ItemStack item) {
+		return current().using(item);
+	}
+	public static Filtered using(Predicate<RecipeElement> filter) {
+		return current().using(filter);
+	}
+	public static Filtered using(Predicate<RecipeElement> filter, Function<IRecipe, RecipeView> factory) {
+		return current().using(filter, factory);
+	}
+	
+	
+	public static List<IRecipe> entireRecipeList() {
+		return current().entireRecipeList();
+	}
+	
+	public static void addRecipe(IRecipe recipe) {
+		current().addRecipe(recipe);
+	}
+	
+	public static void setParallel(boolean parallel) {
+		current().setParallel(parallel);
+	}
+	
+	public static void deferChanges() {
+		current().deferChanges();
+	}
+	public static void applyChanges() {
+		current().applyChanges();
+	}
+	
+	public static void sortRecipes() {
+		current().sortRecipes();
+	}
+	
+	/**
+	 * A search manager whose changes are only recorded, leaving the recipe list untouched.
+	 * @see SearchManager#getReport()
+	 */
+	public static SearchManager dryRun() {
+		return SearchManager.dryRun();
+	}
+	
+	/**
+	 * @see SearchManager#fork()
+	 */
+	public static SearchManager fork() {
+		return current().fork();
+	}
+	public static void merge(SearchManager fork) {
+		current().merge(fork);
+	}
+	
+	/**
+	 * The first recipe matching the grid, found by the shared {@link RecipeMatcher}. This is an opt-in
+	 * for mods and scripts that look up crafting recipes themselves, such as automatic crafters.
+	 * The crafting table and the other vanilla containers keep calling
+	 * {@link net.minecraft.item.crafting.CraftingManager#findMatchingRecipe}, which McCollect does not
+	 * replace, and unlike it the recipe is returned rather than its crafting result.
+	 */
+	public static IRecipe findMatchingRecipe(InventoryCrafting grid, World world) {
+		return _matcher.findMatchingRecipe(grid, world);
+	}
+	public static RecipeMatcher getRecipeMatcher() {
+		return _matcher;
 	}
 	
 	
 	
-	private static FluentPredicate<RecipeView> IS_APPLICABLE =
-			new FluentPredicate<RecipeView>() {
-		@Override public boolean apply(RecipeView input) {
-			return input.isApplicable();
-		}
-	};
 	private static Function<RecipeView, ItemStack> GET_OUTPUT =
 			new Function<RecipeView, ItemStack>() {
 		@Override public ItemStack apply(RecipeView input) {
@@ -113,6 +213,14 @@ public class RecipeFinder {
 		}
 	};
 	
+	private static long fingerprint(RecipeView view) {
+		return view instanceof BasicRecipeView ? ((BasicRecipeView) view).fingerprint() : view.hashCode();
+	}
+	
+	private static Criterion resultCriterion(ItemStack item) {
+		return Criterion.ofOutput("output " + item, resultFilter(item), item);
+	}
+	
 	private static Predicate<RecipeView> resultFilter(final ItemStack item) {
 		checkNotNull(item);
 		return Predicates.compose(new Predicate<ItemStack>() {
@@ -129,12 +237,65 @@ public class RecipeFinder {
 	
 	public static class SearchManager {
 		
+		// all managers read the same recipe list, so a single index listens to it
+		private static final RecipeIndex SHARED_INDEX = new RecipeIndex() {
+			@Override protected List<IRecipe> recipes() {
+				return RecipeFinder.entireRecipeList();
+			}
+		};
+		
 		private final Function<IRecipe, RecipeView> defaultFactory;
+		private final RecipeIndex index;
+		private RecipeJournal journal;
+		private volatile boolean parallel;
+		private volatile int changes;
+		private final List<DryRunReport.Statement> statements; // null unless this is a dry run
+		private final SearchManager parent; // null unless this is a fork
+		private final List<RecipeBatch> forked; // the batches committed to a fork, in order
+		
+		// the recipe list as if the pending changes were applied
+		private final Collection<IRecipe> registry = new AbstractCollection<IRecipe>() {
+			@Override public Iterator<IRecipe> iterator() {
+				return currentRecipeList().iterator();
+			}
+			@Override public int size() {
+				return currentRecipeList().size();
+			}
+		};
+		
 		public SearchManager() {
 			this(BasicRecipeView.STRICT_MATCHING);
 		}
 		public SearchManager(Function<IRecipe, RecipeView> defaultFactory) {
+			this(defaultFactory, false);
+		}
+		private SearchManager(Function<IRecipe, RecipeView> defaultFactory, boolean dryRun) {
 			this.defaultFactory = defaultFactory;
+			index = SHARED_INDEX;
+			journal = dryRun ? new RecipeJournal() : null;
+			statements = dryRun ? Lists.<DryRunReport.Statement>newArrayList() : null;
+			parent = null;
+			forked = null;
+		}
+		private SearchManager(SearchManager parent) {
+			defaultFactory = parent.defaultFactory;
+			index = parent.index;
+			journal = new RecipeJournal();
+			if (parent.journal != null)
+				journal.record(parent.journal.toBatch());
+			parallel = parent.parallel;
+			statements = null;
+			this.parent = parent;
+			forked = Lists.newArrayList();
+		}
+		
+		/**
+		 * A manager that records its changes in a journal which is never applied, so that queries see
+		 * the changes while the recipe list does not. Recipes are copied instead of being changed in
+		 * place, provided that the views are created by one of the factories of {@link BasicRecipeView}.
+		 */
+		public static SearchManager dryRun() {
+			return new SearchManager(BasicRecipeView.STRICT_MATCHING, true);
 		}
 		
 		
@@ -151,55 +312,366 @@ public class RecipeFinder {
 			return forResultSizeUndetermined(new ItemStack(block), factory);
 		}
 		SizeUndetermined forResultSizeUndetermined(ItemStack item, Function<IRecipe, RecipeView> factory) {
-			return new SizeUndetermined(resultFilter(item), factory);
+			return new SizeUndetermined(registry, ImmutableList.of(resultCriterion(item)), factory);
 		}
 
 		public SizedSizeUndetermined forResult(ItemStack item) {
 			return forResult(item, defaultFactory);
 		}
 		public SizedSizeUndetermined forResult(ItemStack item, Function<IRecipe, RecipeView> factory) {
-			return new SizedSizeUndetermined(resultFilter(item), factory, item.stackSize);
+			return new SizedSizeUndetermined(registry, ImmutableList.of(resultCriterion(item)), factory,
+					item.stackSize);
 		}
 
 		public Filtered forResult(Predicate<ItemStack> filter) {
 			return forResult(filter, defaultFactory);
 		}
 		public Filtered forResult(Predicate<ItemStack> filter, Function<IRecipe, RecipeView> factory) {
-			return new Filtered(Predicates.compose(filter, GET_OUTPUT), factory);
+			return new Filtered(registry, ImmutableList.of(Criterion.of("output matching " + filter,
+					Cost.OUTPUT_COMPARE, Predicates.compose(filter, GET_OUTPUT))), factory);
+		}
+		
+		
+		public Filtered using(Item item) {
+			return using(RecipeElement.equalTo(item));
+		}
+		public Filtered using(Block block) {
+			return using(RecipeElement.equalTo(block));
+		}
+		public Filtered using(String ore) {
+			return using(RecipeElement.equalTo(ore));
+		}
+		public Filtered using(ItemStack item) {
+			return using(RecipeElement.equalTo(item));
+		}
+		public Filtered using(Predicate<RecipeElement> filter) {
+			return using(filter, defaultFactory);
+		}
+		public Filtered using(Predicate<RecipeElement> filter, Function<IRecipe, RecipeView> factory) {
+			return new Filtered(registry, ImmutableList.<Criterion>of(), factory).using(filter);
 		}
 		
 
-		@SuppressWarnings("unchecked")
+		/**
+		 * The recipe list of the crafting manager, which is replaced by an {@link ObservableRecipeList}
+		 * on the first call.
+		 */
 		public List<IRecipe> entireRecipeList() {
-			return CraftingManager.getInstance().getRecipeList();
+			return ObservableRecipeList.install();
+		}
+		
+		private List<IRecipe> currentRecipeList() {
+			RecipeJournal journal = this.journal;
+			return journal == null ? entireRecipeList() : journal.overlay(entireRecipeList());
+		}
+		
+		private Collection<IRecipe> pending(final Collection<IRecipe> candidates) {
+			return new AbstractCollection<IRecipe>() {
+				@Override public Iterator<IRecipe> iterator() {
+					return get().iterator();
+				}
+				@Override public int size() {
+					return get().size();
+				}
+				private Collection<IRecipe> get() {
+					RecipeJournal journal = SearchManager.this.journal;
+					return journal == null ? candidates : journal.overlayCandidates(
+							index.inListOrder(Iterables.concat(candidates, journal.changedBase())));
+				}
+			};
+		}
+		
+		
+		/**
+		 * Whether queries over large recipe lists are evaluated in a fork-join pool. Results are kept
+		 * in the list order and changes are still applied on the calling thread, but the predicates
+		 * and the view factories involved must be thread-safe.
+		 */
+		public void setParallel(boolean parallel) {
+			this.parallel = parallel;
+		}
+		public boolean isParallel() {
+			return parallel;
+		}
+		
+		/**
+		 * Records the subsequent changes in a journal instead of applying them to the recipe list,
+		 * until {@link #applyChanges()} is called. Queries made in between see the pending changes.
+		 */
+		public void deferChanges() {
+			if (journal == null)
+				journal = new RecipeJournal();
+		}
+		
+		/**
+		 * Applies the pending changes to the recipe list in a single pass, and stops deferring. The
+		 * changes of a fork are applied by merging it instead.
+		 */
+		public void applyChanges() {
+			RecipeJournal journal = this.journal;
+			if (journal != null && !isDryRun() && !isFork()) {
+				this.journal = null;
+				commit(journal.toBatch());
+			}
+		}
+		
+		public boolean isDryRun() {
+			return statements != null;
+		}
+		
+		/**
+		 * A manager that sees the changes made through this one so far, and records its own changes
+		 * until they are {@linkplain #merge(SearchManager) merged} back. Like in a dry run, recipes are
+		 * copied instead of being changed in place. Forks may be used on other threads, one thread
+		 * each, provided that this manager is left alone until they are merged.
+		 */
+		public SearchManager fork() {
+			return new SearchManager(this);
+		}
+		
+		/**
+		 * Commits the changes made through the fork to this manager, in the order they were made.
+		 */
+		public void merge(SearchManager fork) {
+			checkArgument(fork.parent == this, "not a fork of this manager");
+			for (RecipeBatch batch : fork.forked)
+				commit(batch);
+			fork.forked.clear();
+		}
+		
+		public boolean isFork() {
+			return parent != null;
+		}
+		
+		/**
+		 * The recipes this fork has removed, replaced or rewritten since the last merge, as seen by its
+		 * parent. Two forks touching the same recipe are likely to conflict.
+		 */
+		public Set<IRecipe> getTouchedRecipes() {
+			checkState(isFork(), "not a fork");
+			Set<IRecipe> ret = Sets.newIdentityHashSet();
+			for (RecipeBatch batch : forked) {
+				ret.addAll(batch.removals());
+				ret.addAll(batch.replacements().keySet());
+				ret.addAll(batch.rewritten());
+			}
+			return ret;
+		}
+		
+		/**
+		 * The changes made through this dry-run manager so far, along with the time taken and the
+		 * recipes examined by each statement.
+		 */
+		public DryRunReport getReport() {
+			checkState(isDryRun(), "not a dry run");
+			return new DryRunReport(statements, journal.toBatch());
+		}
+		
+		private Function<IRecipe, RecipeView> copyOnWrite(Function<IRecipe, RecipeView> factory) {
+			if (isDryRun() || isFork()) {
+				if (factory == BasicRecipeView.STRICT_MATCHING)
+					return BasicRecipeView.STRICT_COPY_ON_WRITE;
+				if (factory == BasicRecipeView.LOOSE_MATCHING)
+					return BasicRecipeView.LOOSE_COPY_ON_WRITE;
+			}
+			return factory;
+		}
+		
+		public void addRecipe(IRecipe recipe) {
+			commit(new RecipeBatch().add(checkNotNull(recipe)));
+		}
+		
+		/**
+		 * Sorts the recipe list with the {@link RecipeSorter}. The recipes prioritized by McCollect
+		 * are sorted among themselves and kept in front of the others.
+		 */
+		public void sortRecipes() {
+			checkState(!isFork(), "unable to sort in a fork");
+			List<IRecipe> recipes = entireRecipeList();
+			if (recipes instanceof ObservableRecipeList)
+				((ObservableRecipeList) recipes).sort(RecipeSorter.INSTANCE);
+			else
+				RecipeSorter.sortCraftManager();
+			changes++;
+		}
+		
+		/**
+		 * A stamp that changes whenever the recipe list is changed through this manager or by anyone else.
+		 * Replacing elements with {@code set} directly is only detected on an observable list.
+		 */
+		private Stamp stamp() {
+			List<IRecipe> recipes = entireRecipeList();
+			return new Stamp(recipes, Reflections.modCount(recipes), recipes.size(), changes);
+		}
+		
+		/**
+		 * Draws the candidates from the index that answers one of the criteria with the fewest recipes,
+		 * or from the whole list if none of them can be answered by an index.
+		 */
+		QueryPlan plan(List<Criterion> criteria) {
+			int total = index.size(), estimate = total;
+			Criterion indexed = null;
+			
+			for (Criterion c : criteria)
+				if (c.isIndexed()) {
+					int n = c.output != null ? index.countOutput(c.output) : index.countInput(c.inputs);
+					if (indexed == null || n < estimate) {
+						indexed = c;
+						estimate = n;
+					}
+				}
+			
+			Collection<IRecipe> source = indexed == null ? registry : pending(indexed.output != null ?
+					index.forOutput(indexed.output) : index.forInput(indexed.inputs));
+			
+			return new QueryPlan(source, indexed, estimate, total, criteria);
+		}
+		
+		/**
+		 * Applies the batch to the recipe list in a single pass, and notifies the index of the changes.
+		 * If changes are being deferred, records the batch instead.
+		 */
+		void commit(RecipeBatch batch) {
+			if (batch.isEmpty())
+				return;
+			
+			changes++;
+			QueryCounter.commit(batch);
+			if (forked != null)
+				forked.add(batch);
+			
+			if (journal != null) {
+				Collection<IRecipe> rewritten = journal.record(batch);
+				if (!rewritten.isEmpty())
+					index.update(ImmutableList.<IRecipe>of(), ImmutableList.<IRecipe>of(), rewritten);
+				return;
+			}
+			
+			batch.applyTo(entireRecipeList());
+			index.update(batch.removed(), batch.added(), batch.rewritten());
 		}
 		
 		
 		// (Important!!) Filtered collection does not support iterator().remove()
 		public class Filtered implements Iterable<RecipeView> {
 			
-			private final Collection<RecipeView> unfiltered, targets;
-			protected final Predicate<RecipeView> filter;
+			private final Collection<IRecipe> source;
+			private final Collection<RecipeView> converted, targets;
+			protected final List<Criterion> criteria;
 			protected final Function<IRecipe, RecipeView> factory;
+			private volatile Result result;
 			
-			private Filtered(Predicate<RecipeView> filter,
+			private Filtered(Collection<IRecipe> source, List<Criterion> criteria,
 					Function<IRecipe, RecipeView> factory) {
-				this(filter(transform(entireRecipeList(), factory), IS_APPLICABLE),
-						filter,
-						factory);
+				this(source, null, criteria, factory);
 			}
-			private Filtered(Collection<RecipeView> unfiltered,
+			private Filtered(Collection<RecipeView> converted,
 					Function<IRecipe, RecipeView> factory) {
-				this(unfiltered,
-						alwaysTrue().<RecipeView>cast(),
-						factory);
+				this(null, converted, ImmutableList.<Criterion>of(), factory);
 			}
-			private Filtered(Collection<RecipeView> unfiltered, Predicate<RecipeView> filter,
-					Function<IRecipe, RecipeView> factory) {
-				this.unfiltered = unfiltered;
-				targets = filter(unfiltered, filter);
-				this.filter = filter;
-				this.factory = factory;
+			// source: the recipe list if this is a query, or null if this holds the views converted by a change
+			private Filtered(Collection<IRecipe> source, Collection<RecipeView> converted,
+					List<Criterion> criteria, Function<IRecipe, RecipeView> factory) {
+				this.source = source;
+				this.converted = converted;
+				this.criteria = criteria;
+				this.factory = copyOnWrite(factory);
+				targets = new AbstractCollection<RecipeView>() {
+					@Override public Iterator<RecipeView> iterator() {
+						return evaluate().iterator();
+					}
+					@Override public int size() {
+						return evaluate().size();
+					}
+				};
+			}
+			
+			private Collection<RecipeView> evaluate() {
+				if (source == null)
+					return converted;
+				
+				return result().views;
+			}
+			
+			private Result result() {
+				Stamp stamp = stamp();
+				Result result = this.result;
+				if (result == null || !result.stamp.equals(stamp))
+					this.result = result = compute(stamp);
+				
+				return result;
+			}
+			
+			private Result compute(Stamp stamp) {
+				QueryPlan plan = plan(criteria);
+				Collection<IRecipe> candidates = plan.getSource();
+				
+				if (parallel) {
+					IRecipe[] recipes = candidates.toArray(new IRecipe[0]);
+					
+					if (recipes.length >= ParallelEvaluator.THRESHOLD) {
+						QueryCounter.query(recipes.length);
+						return new Result(stamp, ParallelEvaluator.filter(recipes, factory, plan.getPredicate()),
+								recipes.length);
+					}
+				}
+				
+				// counted as they are examined, as the candidates from the index may be drawn lazily
+				final int[] examined = new int[1];
+				List<RecipeView> views = Lists.newArrayList(filter(transform(candidates,
+						new Function<IRecipe, RecipeView>() {
+							@Override public RecipeView apply(IRecipe input) {
+								examined[0]++;
+								return factory.apply(input);
+							}
+						}), plan.getPredicate()));
+				
+				QueryCounter.query(examined[0]);
+				return new Result(stamp, views, examined[0]);
+			}
+			
+			/**
+			 * The number of recipes examined to find the targets.
+			 */
+			private int examined() {
+				return source == null ? converted.size() : result().examined;
+			}
+			
+			/**
+			 * Commits the batch, and records the statement if this is a dry run.
+			 */
+			private void commit(String statement, long start, int examined, RecipeBatch batch) {
+				SearchManager.this.commit(batch);
+				
+				if (isDryRun())
+					statements.add(new DryRunReport.Statement(String.format("%s on %s", statement, this),
+							System.nanoTime() - start, examined, batch));
+			}
+			
+			@Override public String toString() {
+				if (source == null)
+					return String.format("%d recipes converted by a change", converted.size());
+				if (criteria.isEmpty())
+					return "all recipes";
+				return Joiner.on(", ").join(Lists.transform(criteria, Functions.toStringFunction()));
+			}
+			
+			protected List<Criterion> and(Criterion criterion) {
+				return ImmutableList.<Criterion>builder().addAll(criteria).add(criterion).build();
+			}
+			
+			private boolean isRegistryWide() {
+				return source != null;
+			}
+			
+			/**
+			 * Describes how this query would be evaluated against the current recipe list.
+			 */
+			public String explain() {
+				if (source == null)
+					return toString();
+				
+				return plan(criteria).toString();
 			}
 			
 			public List<IRecipe> getRecipes() {
@@ -224,12 +696,16 @@ public class RecipeFinder {
 				return using(RecipeElement.equalTo(item));
 			}
 			public Filtered using(final Predicate<RecipeElement> filter) {
-				return new Filtered(
-						FluentPredicate.from(this.filter).and(new Predicate<RecipeView>() {
-							@Override public boolean apply(RecipeView input) {
-								return Iterables.any(input.getInput(), filter);
-							}
-						}), factory);
+				Predicate<RecipeView> predicate = new Predicate<RecipeView>() {
+					@Override public boolean apply(RecipeView input) {
+						return Iterables.any(input.getInput(), filter);
+					}
+				};
+				String description = "using " + filter;
+				
+				return new Filtered(registry, and(filter instanceof Enumerated ?
+						Criterion.ofInputs(description, predicate, (Enumerated) filter) :
+						Criterion.of(description, Cost.INPUT_DECODE, predicate)), factory);
 			}
 	
 			public Filtered usingExactly(Multiset<RecipeElement> shapelessInput) {
@@ -239,7 +715,8 @@ public class RecipeFinder {
 					final boolean shapelessOnly, final Multiset<RecipeElement> shapelessInput) {
 				
 				checkNotNull(shapelessInput);
-				return new Filtered(new FluentPredicate<RecipeView>() {
+				return new Filtered(registry, and(Criterion.of("using exactly " + shapelessInput,
+						Cost.INPUT_DECODE, new Predicate<RecipeView>() {
 					@Override public boolean apply(RecipeView r) {
 						try {
 							return shapelessInput.equals(shapelessOnly ?
@@ -248,7 +725,7 @@ public class RecipeFinder {
 						
 						return false;
 					}
-				}.and(filter), factory);
+				})), factory);
 			}
 			
 			public Filtered usingExactly(Matrix<RecipeElement> shapedInput) {
@@ -258,7 +735,8 @@ public class RecipeFinder {
 					final boolean isMirrored, final Matrix<RecipeElement> shapedInput) {
 				
 				checkNotNull(shapedInput);
-				return new Filtered(new FluentPredicate<RecipeView>() {
+				return new Filtered(registry, and(Criterion.of("using exactly " + shapedInput,
+						Cost.INPUT_DECODE, new Predicate<RecipeView>() {
 					@Override public boolean apply(RecipeView r) {
 						try {
 							if (isMirrored && r.isMirrored()) {
@@ -278,13 +756,13 @@ public class RecipeFinder {
 						
 						return false;
 					}
-				}.and(filter), factory);
+				})), factory);
 			}
 			
 			
 			public Filtered resize(int size) { //keeping old size
-				List<IRecipe> toRemove = Lists.newArrayList();
-				List<IRecipe> toAdd = Lists.newArrayList();
+				long start = System.nanoTime();
+				RecipeBatch batch = new RecipeBatch();
 				
 				List<RecipeView> converted = Lists.newArrayList();
 	
@@ -292,41 +770,39 @@ public class RecipeFinder {
 					ItemStack output = r.getOutput().copy();
 					output.stackSize = size;
 					
-					if (r.setOutput(output)) {
-						toAdd.add(r.getRecipe());
-						toRemove.add(r.getOldRecipe());
-					}
+					if (r.setOutput(output))
+						batch.replace(r.getOldRecipe(), r.getRecipe());
+					else if (r.hasChange())
+						batch.rewrite(r.getRecipe());
 	
 					if (r.hasChange())
 						converted.add(r);
 				}
 				
-				entireRecipeList().removeAll(toRemove);
-				entireRecipeList().addAll(toAdd);
+				commit("resize " + size, start, examined(), batch);
 				
 				return new Filtered(converted, factory);
 			}
 			
 			public Filtered adapt(Item item) { //keeping old size
-				List<IRecipe> toRemove = Lists.newArrayList();
-				List<IRecipe> toAdd = Lists.newArrayList();
+				long start = System.nanoTime();
+				RecipeBatch batch = new RecipeBatch();
 				
 				Set<RecipeView> converted = Sets.newHashSet();
 	
 				for (RecipeView r : targets) {
 					ItemStack output = new ItemStack(item, r.getOutput().stackSize);
 					
-					if (r.setOutput(output)) {
-						toAdd.add(r.getRecipe());
-						toRemove.add(r.getOldRecipe());
-					}
+					if (r.setOutput(output))
+						batch.replace(r.getOldRecipe(), r.getRecipe());
+					else if (r.hasChange())
+						batch.rewrite(r.getRecipe());
 	
 					if (r.hasChange())
 						converted.add(r);
 				}
 	
-				entireRecipeList().removeAll(toRemove);
-				entireRecipeList().addAll(toAdd);
+				commit("adapt " + item, start, examined(), batch);
 				
 				return new Filtered(converted, factory);
 			}
@@ -335,8 +811,8 @@ public class RecipeFinder {
 			}
 			
 			public SizedAdapted adapt(ItemStack item) { //keeping old size
-				List<IRecipe> toRemove = Lists.newArrayList();
-				List<IRecipe> toAdd = Lists.newArrayList();
+				long start = System.nanoTime();
+				RecipeBatch batch = new RecipeBatch();
 				
 				List<RecipeView> converted = Lists.newArrayList();
 	
@@ -344,17 +820,16 @@ public class RecipeFinder {
 					ItemStack output = item.copy();
 					output.stackSize = r.getOutput().stackSize;
 					
-					if (r.setOutput(output)) {
-						toAdd.add(r.getRecipe());
-						toRemove.add(r.getOldRecipe());
-					}
+					if (r.setOutput(output))
+						batch.replace(r.getOldRecipe(), r.getRecipe());
+					else if (r.hasChange())
+						batch.rewrite(r.getRecipe());
 	
 					if (r.hasChange())
 						converted.add(r);
 				}
 				
-				entireRecipeList().removeAll(toRemove);
-				entireRecipeList().addAll(toAdd);
+				commit("adapt " + item, start, examined(), batch);
 				
 				return new SizedAdapted(converted, factory, item.stackSize);
 			}
@@ -375,23 +850,24 @@ public class RecipeFinder {
 			}
 			
 			public Filtered replace(Predicate<RecipeElement> filter, RecipeElement element) {
-				List<IRecipe> toRemove = Lists.newArrayList();
-				List<IRecipe> toAdd = Lists.newArrayList();
+				long start = System.nanoTime();
+				RecipeBatch batch = new RecipeBatch();
 				
 				List<RecipeView> converted = Lists.newArrayList();
 				
-				for (RecipeView r : targets) {
-					if (r.replaceInput(filter, element)) {
-						toAdd.add(r.getRecipe());
-						toRemove.add(r.getOldRecipe());
-					}
+				// only the recipes using the elements can be changed
+				Filtered candidates = isRegistryWide() && filter instanceof Enumerated ?
+						using(filter) : this;
+				
+				for (RecipeView r : candidates.targets) {
+					if (r.replaceInput(filter, element))
+						batch.replace(r.getOldRecipe(), r.getRecipe());
 					
 					if (r.hasChange())
 						converted.add(r);
 				}
 				
-				entireRecipeList().removeAll(toRemove);
-				entireRecipeList().addAll(toAdd);
+				commit("replace " + filter + " with " + element, start, candidates.examined(), batch);
 				
 				return new Filtered(converted, factory);
 			}
@@ -399,23 +875,20 @@ public class RecipeFinder {
 			
 			
 			public Filtered reformulate(Multiset<RecipeElement> inputs) {
-				List<IRecipe> toRemove = Lists.newArrayList();
-				List<IRecipe> toAdd = Lists.newArrayList();
+				long start = System.nanoTime();
+				RecipeBatch batch = new RecipeBatch();
 				
 				List<RecipeView> converted = Lists.newArrayList();
 				
 				for (RecipeView r : targets) {
-					if (r.setInput(inputs)) {
-						toAdd.add(r.getRecipe());
-						toRemove.add(r.getOldRecipe());
-					}
+					if (r.setInput(inputs))
+						batch.replace(r.getOldRecipe(), r.getRecipe());
 	
 					if (r.hasChange())
 						converted.add(r);
 				}
 	
-				entireRecipeList().removeAll(toRemove);
-				entireRecipeList().addAll(toAdd);
+				commit("reformulate " + inputs, start, examined(), batch);
 				
 				return new Filtered(converted, factory);
 			}
@@ -425,23 +898,20 @@ public class RecipeFinder {
 			}
 			
 			public Filtered reformulate(Matrix<RecipeElement> inputs, boolean mirrored) {
-				List<IRecipe> toRemove = Lists.newArrayList();
-				List<IRecipe> toAdd = Lists.newArrayList();
+				long start = System.nanoTime();
+				RecipeBatch batch = new RecipeBatch();
 				
 				List<RecipeView> converted = Lists.newArrayList();
 	
 				for (RecipeView r : targets) {
-					if (r.setInput(inputs, mirrored)) {
-						toAdd.add(r.getRecipe());
-						toRemove.add(r.getOldRecipe());
-					}
+					if (r.setInput(inputs, mirrored))
+						batch.replace(r.getOldRecipe(), r.getRecipe());
 	
 					if (r.hasChange())
 						converted.add(r);
 				}
 	
-				entireRecipeList().removeAll(toRemove);
-				entireRecipeList().addAll(toAdd);
+				commit("reformulate " + inputs, start, examined(), batch);
 				
 				return new Filtered(converted, factory);
 			}
@@ -449,34 +919,50 @@ public class RecipeFinder {
 	
 			
 			public Filtered removeDuplicates() {
-				Set<RecipeView> uniqueRecipes = Sets.newHashSet(targets);
-				List<IRecipe> toAdd = FluentIterable.from(uniqueRecipes)
-						.transform(GET_RECIPE).toList();
-	
-				entireRecipeList().removeAll(getRecipes());
-				entireRecipeList().addAll(toAdd);
+				long start = System.nanoTime();
+				RecipeBatch batch = new RecipeBatch();
+				
+				// grouped by fingerprints, so that views are compared only when their fingerprints collide
+				ListMultimap<Long, RecipeView> groups = ArrayListMultimap.create();
+				List<RecipeView> uniqueRecipes = Lists.newArrayList();
+				
+				for (RecipeView r : targets) {
+					List<RecipeView> group = groups.get(fingerprint(r));
+					if (!group.contains(r)) {
+						group.add(r);
+						uniqueRecipes.add(r);
+					}
+					batch.remove(r.getRecipe());
+				}
+				for (RecipeView r : uniqueRecipes)
+					batch.add(r.getRecipe());
+				
+				commit("remove duplicates", start, examined(), batch);
 				
 				return new Filtered(uniqueRecipes, factory);
 			}
 			
 			public boolean clearRecipes() {
-				boolean ret = !targets.isEmpty();
-				if (ret)
-					entireRecipeList().removeAll(getRecipes());
-				return ret;
+				long start = System.nanoTime();
+				RecipeBatch batch = new RecipeBatch();
+				
+				for (RecipeView r : targets)
+					batch.remove(r.getRecipe());
+				
+				commit("clear", start, examined(), batch);
+				return !batch.isEmpty();
 			}
 			
 			public void prioritizeRecipes() {
-				List<IRecipe> toRemove = Lists.newArrayList();
-				List<IRecipe> toAdd = Lists.newArrayList();
+				long start = System.nanoTime();
+				RecipeBatch batch = new RecipeBatch();
 				
 				for (RecipeView r : targets) {
-					toAdd.add(r.getPrioritized());
-					toRemove.add(r.getOldRecipe());
+					batch.addFirst(r.getPrioritized());
+					batch.remove(r.getOldRecipe());
 				}
 	
-				entireRecipeList().removeAll(toRemove);
-				entireRecipeList().addAll(0, toAdd);
+				commit("prioritize", start, examined(), batch);
 			}
 			
 		}
@@ -496,50 +982,53 @@ public class RecipeFinder {
 		
 	
 		public class Undetermined extends Filtered {
-			private Undetermined(Predicate<RecipeView> filter,
+			private Undetermined(Collection<IRecipe> source, List<Criterion> criteria,
 					Function<IRecipe, RecipeView> factory) {
-				super(filter, factory);
+				super(source, criteria, factory);
 			}
 			public Filtered ofShapedInput() {
-				return new Filtered(new FluentPredicate<RecipeView>() {
+				return new Filtered(registry, and(Criterion.of("shaped input",
+						Cost.CLASS_CHECK, new Predicate<RecipeView>() {
 					@Override public boolean apply(RecipeView input) {
 						return input.getCategory() == Category.SHAPED;
 					}
-				}.and(filter), factory);
+				})), factory);
 			}
 			public Filtered ofShapelessInput() {
-				return new Filtered(new FluentPredicate<RecipeView>() {
+				return new Filtered(registry, and(Criterion.of("shapeless input",
+						Cost.CLASS_CHECK, new Predicate<RecipeView>() {
 					@Override public boolean apply(RecipeView input) {
 						return input.getCategory() == Category.SHAPELESS;
 					}
-				}.and(filter), factory);
+				})), factory);
 			}
 		}
 		
 		
 		public class SizeUndetermined extends Undetermined {
-			private SizeUndetermined(Predicate<RecipeView> filter,
+			private SizeUndetermined(Collection<IRecipe> source, List<Criterion> criteria,
 					Function<IRecipe, RecipeView> factory) {
-				super(filter, factory);
+				super(source, criteria, factory);
 			}
 			public Undetermined inSize(final int size) {
-				return new Undetermined(new FluentPredicate<RecipeView>() {
+				return new Undetermined(registry, and(Criterion.of("output size " + size,
+						Cost.OUTPUT_COMPARE, new Predicate<RecipeView>() {
 					@Override public boolean apply(RecipeView input) {
 						try {
 							return input.getOutput().stackSize == size;
 						} catch (NullPointerException ignored) { }
 						return false;
 					}
-				}.and(filter), factory);
+				})), factory);
 			}
 		}
 		
 		
 		public class SizedSizeUndetermined extends SizeUndetermined {
 			private final int size;
-			private SizedSizeUndetermined(Predicate<RecipeView> filter,
+			private SizedSizeUndetermined(Collection<IRecipe> source, List<Criterion> criteria,
 					Function<IRecipe, RecipeView> factory, int size) {
-				super(filter, factory);
+				super(source, criteria, factory);
 				this.size = size;
 			}
 			public Undetermined regardingSize() {
@@ -550,4 +1039,37 @@ public class RecipeFinder {
 	}
 	
 	
+	private static class Stamp {
+		private final List<IRecipe> recipes;
+		private final int modCount, size, changes;
+		private Stamp(List<IRecipe> recipes, int modCount, int size, int changes) {
+			this.recipes = recipes;
+			this.modCount = modCount;
+			this.size = size;
+			this.changes = changes;
+		}
+		@Override public int hashCode() {
+			return Objects.hashCode(System.identityHashCode(recipes), modCount, size, changes);
+		}
+		@Override public boolean equals(Object obj) {
+			if (obj instanceof Stamp) {
+				Stamp o = (Stamp) obj;
+				return o.recipes == recipes && o.modCount == modCount && o.size == size && o.changes == changes;
+			}
+			return false;
+		}
+	}
+	
+	private static class Result {
+		private final Stamp stamp;
+		private final List<RecipeView> views;
+		private final int examined;
+		private Result(Stamp stamp, List<RecipeView> views, int examined) {
+			this.stamp = stamp;
+			this.views = Collections.unmodifiableList(views);
+			this.examined = examined;
+		}
+	}
+	
+	
 }
@@ -0,0 +1,424 @@
+/*
+ * Copyright (c) 2014, Zothf, All rights reserved.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library.
+ */
+
+package zotmc.collect.recipe;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.AbstractCollection;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import net.minecraft.item.Item;
+import net.minecraft.item.ItemStack;
+import net.minecraft.item.crafting.IRecipe;
+import net.minecraft.nbt.NBTTagCompound;
+
+import com.google.common.base.Objects;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Iterables;
+import com.google.common.collect.LinkedHashMultimap;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.SetMultimap;
+import com.google.common.collect.Sets;
+import com.google.common.primitives.Ints;
+
+/**
+ * An index over a recipe list keyed by the unsized output (item, metadata and NBT) of each recipe,
+ * together with an inverted index from each input element to the recipes using it.
+ * The index is built lazily. Over an {@link ObservableRecipeList} it follows the events of the list,
+ * otherwise it is kept in sync by {@link #update} for changes made through McCollect and rebuilt
+ * whenever the list is found to be changed behind its back.
+ * 
+ * <p>Each recipe is indexed once however many times it occurs, but the recipes are always drawn
+ * from the index with every occurrence in the order of the list, as a scan of the list would give.
+ * 
+ * @author zot
+ */
+abstract class RecipeIndex {
+	
+	protected abstract List<IRecipe> recipes();
+	
+	
+	private Object[] snapshot;
+	private ObservableRecipeList observed;
+	private final Map<IRecipe, Integer> counts = Maps.newIdentityHashMap();
+	private int entries;
+	private final Map<IRecipe, OutputKey> outputs = Maps.newIdentityHashMap();
+	private final SetMultimap<OutputKey, IRecipe> byOutput = LinkedHashMultimap.create();
+	private final Map<IRecipe, Set<RecipeElement>> inputs = Maps.newIdentityHashMap();
+	private final SetMultimap<RecipeElement, IRecipe> byInput = LinkedHashMultimap.create();
+	// the positions of the recipes in a copy of the list, built on demand once the list has changed
+	private Object[] order;
+	private int orderModCount;
+	private final Map<IRecipe, int[]> positions = Maps.newIdentityHashMap();
+	
+	
+	/**
+	 * A live view of the recipes whose output equals to the given item, regardless of the stack size.
+	 */
+	public Collection<IRecipe> forOutput(ItemStack output) {
+		final OutputKey key = new OutputKey(checkNotNull(output));
+		
+		return new AbstractCollection<IRecipe>() {
+			@Override public Iterator<IRecipe> iterator() {
+				return getOutput(key).iterator();
+			}
+			@Override public int size() {
+				return getOutput(key).size();
+			}
+		};
+	}
+	
+	private synchronized List<IRecipe> getOutput(OutputKey key) {
+		validate();
+		return inOrder(byOutput.get(key));
+	}
+	
+	public synchronized int countOutput(ItemStack output) {
+		validate();
+		return occurrences(byOutput.get(new OutputKey(checkNotNull(output))));
+	}
+	
+	/**
+	 * A live view of the recipes using any of the given elements. Ore elements are matched by
+	 * the identity of their ore lists, and wildcard metadata is treated as a distinct value.
+	 */
+	public Collection<IRecipe> forInput(Iterable<RecipeElement> elements) {
+		final Set<RecipeElement> keys = ImmutableSet.copyOf(elements);
+		
+		return new AbstractCollection<IRecipe>() {
+			@Override public Iterator<IRecipe> iterator() {
+				return getInput(keys).iterator();
+			}
+			@Override public int size() {
+				return getInput(keys).size();
+			}
+		};
+	}
+	
+	private synchronized List<IRecipe> getInput(Set<RecipeElement> keys) {
+		validate();
+		return inOrder(distinctInput(keys));
+	}
+	
+	public synchronized int countInput(Iterable<RecipeElement> elements) {
+		validate();
+		return occurrences(distinctInput(ImmutableSet.copyOf(elements)));
+	}
+	
+	private Collection<IRecipe> distinctInput(Set<RecipeElement> keys) {
+		if (keys.size() == 1)
+			return byInput.get(keys.iterator().next());
+		
+		Set<IRecipe> ret = Sets.newIdentityHashSet();
+		for (RecipeElement key : keys)
+			ret.addAll(byInput.get(key));
+		return ret;
+	}
+	
+	/**
+	 * Every occurrence of the given recipes in the list, in the order of the list. Recipes not in
+	 * the list are left out.
+	 */
+	public synchronized List<IRecipe> inListOrder(Iterable<IRecipe> recipes) {
+		validate();
+		
+		Set<IRecipe> distinct = Sets.newIdentityHashSet();
+		Iterables.addAll(distinct, recipes);
+		return inOrder(distinct);
+	}
+	
+	public synchronized int size() {
+		validate();
+		return observed != null ? observed.size() : snapshot.length;
+	}
+	
+	
+	
+	/**
+	 * Reflects changes already made to the recipe list. Rewritten recipes are those being kept
+	 * in the list but having their contents changed in place.
+	 */
+	public synchronized void update(Collection<IRecipe> removed, Collection<IRecipe> added,
+			Collection<IRecipe> rewritten) {
+		
+		if (observed != null) {
+			// additions and removals have been received as events
+			for (IRecipe r : rewritten)
+				reindex(r);
+			return;
+		}
+		
+		if (snapshot == null)
+			return;
+		
+		List<IRecipe> recipes = recipes();
+		if (snapshot.length - removed.size() + added.size() != recipes.size()) {
+			invalidate();
+			return;
+		}
+		
+		for (IRecipe r : removed)
+			release(r);
+		for (IRecipe r : rewritten)
+			reindex(r);
+		for (IRecipe r : added)
+			retain(r);
+		
+		snapshot = recipes.toArray();
+	}
+	
+	public synchronized void invalidate() {
+		if (observed != null) {
+			observed.removeListener(listener);
+			observed = null;
+		}
+		snapshot = null;
+		order = null;
+		positions.clear();
+		counts.clear();
+		entries = 0;
+		outputs.clear();
+		byOutput.clear();
+		inputs.clear();
+		byInput.clear();
+	}
+	
+	
+	
+	private final ObservableRecipeList.Listener listener = new ObservableRecipeList.Listener() {
+		@Override public void onAdd(IRecipe recipe) {
+			synchronized (RecipeIndex.this) {
+				retain(recipe);
+			}
+		}
+		@Override public void onRemove(IRecipe recipe) {
+			synchronized (RecipeIndex.this) {
+				release(recipe);
+			}
+		}
+		@Override public void onSet(IRecipe oldRecipe, IRecipe recipe) {
+			synchronized (RecipeIndex.this) {
+				release(oldRecipe);
+				retain(recipe);
+			}
+		}
+	};
+	
+	private void validate() {
+		List<IRecipe> recipes = recipes();
+		
+		if (observed != null) {
+			// changes made to the backing list directly are not observed
+			if (recipes != observed || entries != recipes.size())
+				rebuild(recipes);
+		}
+		else if (snapshot != null && snapshot.length == recipes.size()) {
+			int i = 0;
+			for (IRecipe r : recipes)
+				if (r != snapshot[i++]) {
+					rebuild(recipes);
+					return;
+				}
+		}
+		else
+			rebuild(recipes);
+	}
+	
+	private void rebuild(List<IRecipe> recipes) {
+		invalidate();
+		
+		for (IRecipe r : recipes)
+			retain(r);
+		
+		if (recipes instanceof ObservableRecipeList) {
+			observed = (ObservableRecipeList) recipes;
+			observed.addListener(listener);
+		}
+		else
+			snapshot = recipes.toArray();
+	}
+	
+	// a recipe may occur more than once in the list, and may occur twice for a moment while sorting
+	private void retain(IRecipe recipe) {
+		entries++;
+		if (recipe == null)
+			return;
+		
+		Integer count = counts.get(recipe);
+		counts.put(recipe, count == null ? 1 : count + 1);
+		if (count == null)
+			index(recipe);
+	}
+	
+	private void release(IRecipe recipe) {
+		entries--;
+		Integer count = counts.get(recipe);
+		
+		if (count == null)
+			return;
+		if (count > 1)
+			counts.put(recipe, count - 1);
+		else {
+			counts.remove(recipe);
+			unindex(recipe);
+		}
+	}
+	
+	private void reindex(IRecipe recipe) {
+		if (counts.containsKey(recipe)) {
+			unindex(recipe);
+			index(recipe);
+		}
+	}
+	
+	private void index(IRecipe recipe) {
+		ItemStack output = recipe.getRecipeOutput();
+		
+		if (output != null) {
+			OutputKey key = new OutputKey(output);
+			outputs.put(recipe, key);
+			byOutput.put(key, recipe);
+		}
+		
+		Set<RecipeElement> elements = decodeInput(recipe);
+		if (!elements.isEmpty()) {
+			inputs.put(recipe, elements);
+			for (RecipeElement e : elements)
+				byInput.put(e, recipe);
+		}
+	}
+	
+	private void unindex(IRecipe recipe) {
+		OutputKey key = outputs.remove(recipe);
+		
+		if (key != null)
+			byOutput.remove(key, recipe);
+		
+		Set<RecipeElement> elements = inputs.remove(recipe);
+		if (elements != null)
+			for (RecipeElement e : elements)
+				byInput.remove(e, recipe);
+	}
+	
+	private int occurrences(Collection<IRecipe> distinct) {
+		int ret = 0;
+		for (IRecipe r : distinct) {
+			Integer count = counts.get(r);
+			if (count != null)
+				ret += count;
+		}
+		return ret;
+	}
+	
+	private List<IRecipe> inOrder(Collection<IRecipe> distinct) {
+		if (distinct.size() <= 1) {
+			Integer count = distinct.isEmpty() ? null : counts.get(distinct.iterator().next());
+			return count == null ? ImmutableList.<IRecipe>of() :
+					Collections.nCopies(count, distinct.iterator().next());
+		}
+		
+		Map<IRecipe, int[]> positions = positions();
+		List<int[]> found = Lists.newArrayListWithCapacity(distinct.size());
+		for (IRecipe r : distinct) {
+			int[] p = positions.get(r);
+			if (p != null)
+				found.add(p);
+		}
+		
+		int[] at = Ints.concat(found.toArray(new int[found.size()][]));
+		Arrays.sort(at);
+		
+		IRecipe[] ret = new IRecipe[at.length];
+		for (int i = 0; i < at.length; i++)
+			ret[i] = (IRecipe) order[at[i]];
+		return Arrays.asList(ret);
+	}
+	
+	private Map<IRecipe, int[]> positions() {
+		if (observed != null) {
+			if (order == null || orderModCount != observed.modCount() || order.length != observed.size()) {
+				order = observed.toArray();
+				orderModCount = observed.modCount();
+				positions.clear();
+			}
+		}
+		else if (order != snapshot) {
+			order = snapshot;
+			positions.clear();
+		}
+		
+		if (positions.isEmpty())
+			for (int i = 0; i < order.length; i++) {
+				IRecipe r = (IRecipe) order[i];
+				if (r != null) {
+					int[] p = positions.get(r);
+					positions.put(r, p == null ? new int[] {i} : Ints.concat(p, new int[] {i}));
+				}
+			}
+		
+		return positions;
+	}
+	
+	private static Set<RecipeElement> decodeInput(IRecipe recipe) {
+		RecipeView view = BasicRecipeView.LOOSE_MATCHING.apply(recipe);
+		
+		if (view.isApplicable())
+			try {
+				Set<RecipeElement> ret = Sets.newHashSet(view.getInput());
+				ret.remove(RecipeElement.NULL_ELEMENT);
+				return ImmutableSet.copyOf(ret);
+				
+			} catch (IllegalArgumentException ignored) { }
+		
+		return ImmutableSet.of();
+	}
+	
+	
+	
+	private static class OutputKey {
+		private final Item item;
+		private final int metadata;
+		private final NBTTagCompound tag;
+		private OutputKey(ItemStack item) {
+			this.item = item.getItem();
+			this.metadata = item.getItemDamage();
+			this.tag = item.stackTagCompound;
+		}
+		@Override public int hashCode() {
+			return Objects.hashCode(item, metadata, tag);
+		}
+		@Override public boolean equals(Object obj) {
+			if (obj == this)
+				return true;
+			if (obj instanceof OutputKey) {
+				OutputKey o = (OutputKey) obj;
+				return o.item == item && o.metadata == metadata && Objects.equal(o.tag, tag);
+			}
+			return false;
+		}
+	}
+	
+}
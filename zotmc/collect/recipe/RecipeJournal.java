@@ -0,0 +1,264 @@
+/*
+ * Copyright (c) 2014, Zothf, All rights reserved.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library.
+ */
+
+package zotmc.collect.recipe;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import net.minecraft.item.crafting.IRecipe;
+
+import com.google.common.base.Predicates;
+import com.google.common.collect.Iterables;
+import com.google.common.collect.Iterators;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+
+/**
+ * Pending changes to a base recipe list, recorded batch by batch and coalesced as they come.
+ * Adding and then removing a recipe cancels out, and a chain of replacements of a base recipe
+ * collapses into a single replacement. Like {@link RecipeBatch#applyTo}, removing or replacing a
+ * recipe affects all its occurrences. The journal can be viewed as an overlay over the base list,
+ * and is finally turned into one {@link RecipeBatch}.
+ * 
+ * @author zot
+ */
+class RecipeJournal {
+	
+	private final Set<IRecipe> removed = Sets.newIdentityHashSet();
+	private final Map<IRecipe, IRecipe> replaced = Maps.newIdentityHashMap(), replacedBy = Maps.newIdentityHashMap();
+	private final PendingList added = new PendingList(false), prioritized = new PendingList(true);
+	private final Set<IRecipe> rewritten = Sets.newIdentityHashSet();
+	
+	
+	/**
+	 * Records a batch as if it was applied after the previous ones. Since rewrites are made in place,
+	 * returns the recipes from the base list that were rewritten by the batch, to be reported at once.
+	 */
+	public Collection<IRecipe> record(RecipeBatch batch) {
+		for (IRecipe r : batch.removals()) {
+			boolean pending = prioritized.remove(r);
+			pending |= added.remove(r);
+			
+			if (!pending) {
+				IRecipe base = replacedBy.remove(r);
+				if (base != null) {
+					replaced.remove(base);
+					removed.add(base);
+				}
+				else
+					removed.add(r);
+			}
+		}
+		rewritten.removeAll(batch.removals());
+		
+		for (Map.Entry<IRecipe, IRecipe> entry : batch.replacements().entrySet()) {
+			IRecipe r = entry.getKey(), s = entry.getValue();
+			
+			boolean pending = prioritized.replace(r, s);
+			pending |= added.replace(r, s);
+			
+			if (!pending) {
+				IRecipe base = replacedBy.remove(r);
+				if (base == null)
+					base = r;
+				
+				replaced.put(base, s);
+				replacedBy.put(s, base);
+			}
+		}
+		rewritten.removeAll(batch.replacements().keySet());
+		
+		prioritized.compact();
+		added.compact();
+		
+		prioritized.addAll(batch.prioritizedRecipes());
+		added.addAll(batch.additions());
+		
+		List<IRecipe> ret = Lists.newArrayList();
+		for (IRecipe r : batch.rewritten())
+			if (rewritten.add(r) && !isPending(r))
+				ret.add(r);
+		return ret;
+	}
+	
+	public boolean isEmpty() {
+		return removed.isEmpty() && replaced.isEmpty()
+				&& added.size == 0 && prioritized.size == 0 && rewritten.isEmpty();
+	}
+	
+	/**
+	 * Whether the recipe is brought in by this journal rather than being in the base list.
+	 */
+	private boolean isPending(IRecipe recipe) {
+		return replacedBy.containsKey(recipe) || prioritized.contains(recipe) || added.contains(recipe);
+	}
+	
+	
+	/**
+	 * The base list as if the pending changes were applied.
+	 */
+	public List<IRecipe> overlay(List<IRecipe> base) {
+		List<IRecipe> ret = Lists.newArrayListWithCapacity(
+				base.size() - removed.size() + prioritized.size + added.size);
+		
+		Iterables.addAll(ret, prioritized);
+		for (IRecipe r : base)
+			if (!removed.contains(r)) {
+				IRecipe s = replaced.get(r);
+				ret.add(s != null ? s : r);
+			}
+		Iterables.addAll(ret, added);
+		
+		return ret;
+	}
+	
+	/**
+	 * The base recipes this journal replaced or rewrote, which are to be drawn as candidates
+	 * together with those answering a query, since their overlaid contents may answer it too.
+	 */
+	public Iterable<IRecipe> changedBase() {
+		return Iterables.concat(replaced.keySet(), rewritten);
+	}
+	
+	/**
+	 * The candidates drawn from the base list as they appear in the {@linkplain #overlay overlay},
+	 * plus every recipe this journal brought in. The candidates are expected to be every occurrence
+	 * in the order of the base list, including the {@linkplain #changedBase changed} ones.
+	 * Meant to be filtered further.
+	 */
+	public List<IRecipe> overlayCandidates(Collection<IRecipe> candidates) {
+		List<IRecipe> ret = Lists.newArrayListWithCapacity(
+				prioritized.size + candidates.size() + added.size);
+		
+		Iterables.addAll(ret, prioritized);
+		for (IRecipe r : candidates)
+			if (!removed.contains(r)) {
+				IRecipe s = replaced.get(r);
+				ret.add(s != null ? s : r);
+			}
+		Iterables.addAll(ret, added);
+		
+		return ret;
+	}
+	
+	
+	public RecipeBatch toBatch() {
+		RecipeBatch batch = new RecipeBatch();
+		
+		for (IRecipe r : removed)
+			batch.remove(r);
+		for (Map.Entry<IRecipe, IRecipe> entry : replaced.entrySet())
+			batch.replace(entry.getKey(), entry.getValue());
+		for (IRecipe r : prioritized)
+			batch.addFirst(r);
+		for (IRecipe r : added)
+			batch.add(r);
+		// rewrites took effect when recorded, and recipes left in the base list were reported then
+		
+		return batch;
+	}
+	
+	
+	
+	/**
+	 * The recipes brought in by a journal, in list order. All the occurrences of a recipe are removed
+	 * or replaced in time proportional to their number, by leaving nulls in their slots until the
+	 * list is compacted.
+	 */
+	private static class PendingList implements Iterable<IRecipe> {
+		private final boolean prepending;
+		private final List<IRecipe> slots = Lists.newArrayList(); // in reverse list order if prepending
+		private final Map<IRecipe, List<Integer>> positions = Maps.newIdentityHashMap();
+		private int size;
+		
+		PendingList(boolean prepending) {
+			this.prepending = prepending;
+		}
+		
+		void addAll(List<IRecipe> recipes) {
+			for (IRecipe r : prepending ? Lists.reverse(recipes) : recipes)
+				put(r, slots.size());
+			size += recipes.size();
+		}
+		
+		private void put(IRecipe recipe, int position) {
+			List<Integer> list = positions.get(recipe);
+			if (list == null)
+				positions.put(recipe, list = Lists.newArrayListWithCapacity(1));
+			list.add(position);
+			slots.add(recipe);
+		}
+		
+		boolean contains(IRecipe recipe) {
+			return positions.containsKey(recipe);
+		}
+		
+		boolean remove(IRecipe recipe) {
+			List<Integer> list = positions.remove(recipe);
+			if (list == null)
+				return false;
+			
+			for (int i : list)
+				slots.set(i, null);
+			size -= list.size();
+			return true;
+		}
+		
+		boolean replace(IRecipe recipe, IRecipe replacement) {
+			if (recipe == replacement)
+				return contains(recipe);
+			
+			List<Integer> list = positions.remove(recipe);
+			if (list == null)
+				return false;
+			
+			for (int i : list)
+				slots.set(i, replacement);
+			List<Integer> others = positions.get(replacement);
+			if (others != null)
+				others.addAll(list);
+			else
+				positions.put(replacement, list);
+			return true;
+		}
+		
+		/**
+		 * Drops the empty slots once they outnumber the recipes, so that each removal costs
+		 * amortized constant time.
+		 */
+		void compact() {
+			if (slots.size() - size <= size)
+				return;
+			
+			List<IRecipe> recipes = Lists.newArrayList(Iterables.filter(slots, Predicates.notNull()));
+			slots.clear();
+			positions.clear();
+			for (IRecipe r : recipes)
+				put(r, slots.size());
+		}
+		
+		@Override public Iterator<IRecipe> iterator() {
+			return Iterators.filter((prepending ? Lists.reverse(slots) : slots).iterator(), Predicates.notNull());
+		}
+	}
+	
+}
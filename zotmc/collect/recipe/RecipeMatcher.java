@@ -0,0 +1,364 @@
+/*
+ * Copyright (c) 2014, Zothf, All rights reserved.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library.
+ */
+
+package zotmc.collect.recipe;
+
+import static net.minecraftforge.oredict.RecipeSorter.Category.SHAPED;
+import static net.minecraftforge.oredict.RecipeSorter.Category.SHAPELESS;
+
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+import net.minecraft.inventory.InventoryCrafting;
+import net.minecraft.item.Item;
+import net.minecraft.item.ItemStack;
+import net.minecraft.item.crafting.IRecipe;
+import net.minecraft.world.World;
+import net.minecraftforge.oredict.RecipeSorter.Category;
+import zotmc.collect.Matrix;
+
+import com.google.common.base.Optional;
+import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.ListMultimap;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+/**
+ * Finds the first recipe in a recipe list matching a crafting grid, like
+ * {@link net.minecraft.item.crafting.CraftingManager#findMatchingRecipe} does but without trying
+ * every recipe. Decodable recipes are bucketed by their trimmed dimensions and their count of
+ * non-empty slots, and indexed within a bucket by their first non-empty item. Only the few
+ * candidates found this way, plus the recipes that cannot be decoded, are tried with
+ * {@link IRecipe#matches}, in the order of the list.
+ * 
+ * <p>For recently seen grids, the first matching recipe of the known classes without ore inputs
+ * is cached by the items, metadata and tags of the grid, since such recipes match by those alone.
+ * The other candidates, including every recipe with an ore input, may match differently as soon as
+ * an ore is registered or anything else changes, and are tried on every lookup in front of the
+ * cached one, so that a cached result never hides them. Both the index and the cache are rebuilt
+ * whenever the list is found changed.
+ * The special case of repairing tools in the crafting manager is not covered.
+ * 
+ * <p>Nothing in McCollect or vanilla Minecraft calls the matcher, as hooking the crafting manager
+ * would take a core mod. It is meant for the callers opting in through
+ * {@link RecipeFinder#findMatchingRecipe}.
+ * 
+ * @author zot
+ */
+public class RecipeMatcher {
+	
+	public static final int DEFAULT_CACHE_SIZE = 512;
+	
+	private final MatchCache<Entry> cache;
+	
+	public RecipeMatcher() {
+		this(DEFAULT_CACHE_SIZE);
+	}
+	/**
+	 * @param cacheSize the number of distinct grids whose results are remembered, or 0 to disable
+	 * the cache
+	 */
+	public RecipeMatcher(int cacheSize) {
+		cache = cacheSize > 0 ? new MatchCache<Entry>(cacheSize) : null;
+	}
+	
+	protected List<IRecipe> recipes() {
+		return RecipeFinder.entireRecipeList();
+	}
+	
+	
+	private volatile State state;
+	
+	public IRecipe findMatchingRecipe(InventoryCrafting grid, World world) {
+		List<IRecipe> recipes = recipes();
+		int modCount = Reflections.modCount(recipes), size = recipes.size();
+		
+		State state = this.state;
+		if (state == null || state.recipes != recipes || modCount < 0
+				|| state.modCount != modCount || state.size != size) {
+			this.state = state = new State(recipes, modCount);
+			if (cache != null)
+				cache.invalidate();
+		}
+		
+		if (cache == null)
+			return state.find(grid, world);
+		
+		MatchCache.GridKey key = new MatchCache.GridKey(grid);
+		Optional<Entry> cached = cache.get(key);
+		// a hit is checked again, in case the inputs of the recipe were changed in place
+		if (cached == null || cached.isPresent() && !cached.get().recipe.matches(grid, world)) {
+			cached = Optional.fromNullable(state.findCacheable(grid, world));
+			if (this.state == state)
+				cache.put(key, cached.orNull());
+		}
+		
+		return state.find(grid, world, cached.orNull());
+	}
+	
+	public long getCacheHitCount() {
+		return cache == null ? 0 : cache.hitCount();
+	}
+	public long getCacheMissCount() {
+		return cache == null ? 0 : cache.missCount();
+	}
+	public long getCacheEvictionCount() {
+		return cache == null ? 0 : cache.evictionCount();
+	}
+	
+	@Override public String toString() {
+		return cache == null ? "RecipeMatcher without cache" : "RecipeMatcher: " + cache;
+	}
+	
+	
+	
+	private static class Entry {
+		private final IRecipe recipe;
+		private final int position;
+		private boolean cacheable; // matches by the items, metadata and tags of the grid alone
+		private Entry(IRecipe recipe, int position) {
+			this.recipe = recipe;
+			this.position = position;
+		}
+	}
+	
+	private static final Comparator<Entry> BY_POSITION = new Comparator<Entry>() {
+		@Override public int compare(Entry o1, Entry o2) {
+			return o1.position < o2.position ? -1 : o1.position == o2.position ? 0 : 1;
+		}
+	};
+	
+	private static class Bucket {
+		private final ListMultimap<Item, Entry> keyed = ArrayListMultimap.create();
+		private final List<Entry> unkeyed = Lists.newArrayList();
+		
+		private void addTo(List<Entry> candidates, Item key) {
+			candidates.addAll(keyed.get(key));
+			candidates.addAll(unkeyed);
+		}
+	}
+	
+	private static int shapedKey(int w, int h, int count) {
+		return w << 16 | h << 8 | count;
+	}
+	
+	private static boolean isEmpty(RecipeElement e) {
+		return e.item == null && !e.isOre();
+	}
+	
+	
+	private static class State {
+		private final List<IRecipe> recipes;
+		private final int modCount, size;
+		
+		private final Map<Integer, Bucket> shaped = Maps.newHashMap(), shapeless = Maps.newHashMap();
+		private final List<Entry> others = Lists.newArrayList(), all = Lists.newArrayList();
+		
+		private State(List<IRecipe> recipes, int modCount) {
+			this.recipes = recipes;
+			this.modCount = modCount;
+			
+			int i = 0;
+			for (IRecipe r : recipes) {
+				Entry e = new Entry(r, i++);
+				all.add(e);
+				
+				if (r == null)
+					continue;
+				try {
+					if (!index(e))
+						others.add(e);
+				} catch (RuntimeException ignored) {
+					others.add(e);
+				}
+			}
+			
+			size = i;
+		}
+		
+		private boolean index(Entry e) {
+			if (!isExactlyDecodable(e.recipe))
+				return false;
+			
+			RecipeView view = BasicRecipeView.LOOSE_MATCHING.apply(e.recipe);
+			Category cat = view.getCategory();
+			
+			if (cat == SHAPED) {
+				Matrix<RecipeElement> input = view.getShapedInput();
+				int top = input.height(), bottom = -1, left = input.width(), right = -1, count = 0;
+				boolean hasOre = false;
+				
+				for (int r = 0; r < input.height(); r++)
+					for (int c = 0; c < input.width(); c++)
+						if (!isEmpty(input.get(r, c))) {
+							top = Math.min(top, r);
+							bottom = Math.max(bottom, r);
+							left = Math.min(left, c);
+							right = Math.max(right, c);
+							count++;
+							if (input.get(r, c).isOre())
+								hasOre = true;
+						}
+				if (count == 0)
+					return false;
+				
+				// ore lists may grow at any time, so recipes using them are never cached
+				e.cacheable = !hasOre;
+				Bucket bucket = bucket(shaped, shapedKey(right - left + 1, bottom - top + 1, count));
+				RecipeElement first = null, mirroredFirst = null;
+				for (int c = left; first == null; c++)
+					if (!isEmpty(input.get(top, c)))
+						first = input.get(top, c);
+				for (int c = right; mirroredFirst == null; c--)
+					if (!isEmpty(input.get(top, c)))
+						mirroredFirst = input.get(top, c);
+				
+				if (first.isOre() || view.isMirrored() && mirroredFirst.isOre())
+					bucket.unkeyed.add(e);
+				else {
+					bucket.keyed.put(first.item, e);
+					if (view.isMirrored() && mirroredFirst.item != first.item)
+						bucket.keyed.put(mirroredFirst.item, e);
+				}
+				return true;
+			}
+			
+			if (cat == SHAPELESS) {
+				List<Item> items = Lists.newArrayList();
+				boolean hasOre = false;
+				int count = 0;
+				
+				for (RecipeElement r : view.getInput())
+					if (!isEmpty(r)) {
+						count++;
+						if (r.isOre())
+							hasOre = true;
+						else if (!items.contains(r.item))
+							items.add(r.item);
+					}
+				if (count == 0)
+					return false;
+				
+				e.cacheable = !hasOre;
+				// the first item of the grid may be any of the ingredients
+				Bucket bucket = bucket(shapeless, count);
+				if (hasOre)
+					bucket.unkeyed.add(e);
+				else
+					for (Item item : items)
+						bucket.keyed.put(item, e);
+				return true;
+			}
+			
+			return false;
+		}
+		
+		private static Bucket bucket(Map<Integer, Bucket> buckets, int key) {
+			Bucket ret = buckets.get(key);
+			if (ret == null)
+				buckets.put(key, ret = new Bucket());
+			return ret;
+		}
+		
+		private IRecipe find(InventoryCrafting grid, World world) {
+			for (Entry e : candidates(grid))
+				if (e.recipe.matches(grid, world))
+					return e.recipe;
+			
+			return null;
+		}
+		
+		/**
+		 * The first of the cacheable recipes matching the grid, which depends on the contents of
+		 * the grid only.
+		 */
+		private Entry findCacheable(InventoryCrafting grid, World world) {
+			for (Entry e : candidates(grid))
+				if (e.cacheable && e.recipe.matches(grid, world))
+					return e;
+			
+			return null;
+		}
+		
+		/**
+		 * The first recipe matching the grid, given the first cacheable one, by trying the other
+		 * candidates in front of it.
+		 */
+		private IRecipe find(InventoryCrafting grid, World world, Entry cached) {
+			for (Entry e : candidates(grid)) {
+				if (e == cached)
+					return e.recipe;
+				if (!e.cacheable && e.recipe.matches(grid, world))
+					return e.recipe;
+			}
+			
+			return null;
+		}
+		
+		/**
+		 * The recipes possibly matching the grid, in the order of the list.
+		 */
+		private List<Entry> candidates(InventoryCrafting grid) {
+			int slots = grid.getSizeInventory(), width = (int) Math.sqrt(slots);
+			if (width * width != slots)
+				return all;
+			
+			int top = width, bottom = -1, left = width, right = -1, count = 0;
+			for (int r = 0; r < width; r++)
+				for (int c = 0; c < width; c++)
+					if (grid.getStackInRowAndColumn(c, r) != null) {
+						top = Math.min(top, r);
+						bottom = Math.max(bottom, r);
+						left = Math.min(left, c);
+						right = Math.max(right, c);
+						count++;
+					}
+			if (count == 0)
+				return others;
+			
+			Item first = null;
+			for (int c = left; first == null; c++) {
+				ItemStack item = grid.getStackInRowAndColumn(c, top);
+				if (item != null)
+					first = item.getItem();
+			}
+			
+			List<Entry> ret = Lists.newArrayList(others);
+			
+			Bucket bucket = shaped.get(shapedKey(right - left + 1, bottom - top + 1, count));
+			if (bucket != null)
+				bucket.addTo(ret, first);
+			bucket = shapeless.get(count);
+			if (bucket != null)
+				bucket.addTo(ret, first);
+			
+			Collections.sort(ret, BY_POSITION);
+			return ret;
+		}
+	}
+	
+	/**
+	 * Only recipes of the known classes are indexed, as subclasses may match in their own ways.
+	 */
+	private static boolean isExactlyDecodable(IRecipe recipe) {
+		return BasicRecipeView.STRICT_MATCHING.apply(recipe).isApplicable()
+				|| recipe.getClass().getDeclaringClass() == BasicRecipeView.class;
+	}
+	
+}
@@ -0,0 +1,368 @@
+/*
+ * Copyright (c) 2014, Zothf, All rights reserved.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library.
+ */
+
+package zotmc.collect.recipe;
+
+import static net.minecraft.item.Item.itemRegistry;
+import static org.apache.logging.log4j.Level.WARN;
+import static zotmc.collect.forge.McCollectInit.NAME;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import net.minecraft.item.Item;
+import net.minecraft.item.ItemStack;
+import net.minecraft.item.crafting.IRecipe;
+import net.minecraft.item.crafting.ShapedRecipes;
+import net.minecraft.item.crafting.ShapelessRecipes;
+import net.minecraft.nbt.CompressedStreamTools;
+import net.minecraftforge.oredict.ShapedOreRecipe;
+import net.minecraftforge.oredict.ShapelessOreRecipe;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import com.google.common.io.ByteArrayDataOutput;
+import com.google.common.io.ByteStreams;
+import com.google.common.io.Closer;
+import com.google.common.io.Files;
+
+import cpw.mods.fml.common.FMLLog;
+
+/**
+ * The crafting recipe list captured before the scripts are run, from which the changes made by the
+ * scripts can be stored in a file and replayed on a later launch, as long as nothing they depend on
+ * has changed. Recipes of the vanilla and Forge classes are stored by their contents, while the others
+ * can only be kept, removed or moved.
+ * 
+ * @author zot
+ */
+public class RecipeSnapshot {
+	
+	private static final int MAGIC = 0x4D434353, VERSION = 1;
+	private static final byte KEEP = 0, NEW = 1;
+	private static final byte OPAQUE = 0, SHAPED = 1, SHAPELESS = 2;
+	private static final byte EMPTY = 0, ITEM = 1, ORE = 2;
+	
+	// changes made through the other APIs of McCollect, which are not stored
+	private static final AtomicInteger untracked = new AtomicInteger();
+	
+	static void untracked() {
+		untracked.incrementAndGet();
+	}
+	
+	
+	private final List<IRecipe> base;
+	private final List<byte[]> encoded;
+	private final HashCode fingerprint;
+	private final int untrackedAtCapture = untracked.get();
+	
+	private RecipeSnapshot(List<IRecipe> base) {
+		this.base = base;
+		encoded = Lists.newArrayListWithCapacity(base.size());
+		
+		Hasher h = Hashing.sha1().newHasher();
+		for (IRecipe r : base) {
+			byte[] bytes = encode(r);
+			encoded.add(bytes);
+			h.putInt(bytes.length).putBytes(bytes);
+		}
+		fingerprint = h.hash();
+	}
+	
+	public static RecipeSnapshot capture() {
+		return new RecipeSnapshot(Lists.newArrayList(RecipeFinder.entireRecipeList()));
+	}
+	
+	/**
+	 * A hash of the contents of the captured recipes, or of their classes and outputs where the
+	 * contents cannot be read.
+	 */
+	public HashCode fingerprint() {
+		return fingerprint;
+	}
+	
+	
+	/**
+	 * Stores how the recipe list has changed since the capture, under the key. Returns false and
+	 * stores nothing if any of the changes cannot be stored.
+	 */
+	public boolean save(File file, HashCode key) throws IOException {
+		if (untracked.get() != untrackedAtCapture) {
+			FMLLog.info("[%s] Not saving the recipe snapshot, as the smelting recipes, fuels "
+					+ "or ore dictionary may have been changed", NAME);
+			return false;
+		}
+		
+		List<IRecipe> recipes = RecipeFinder.entireRecipeList();
+		int prioritized = recipes instanceof ObservableRecipeList ?
+				((ObservableRecipeList) recipes).prioritizedSize() : 0;
+		
+		Map<IRecipe, Integer> positions = Maps.newIdentityHashMap();
+		for (int i = 0; i < base.size(); i++)
+			positions.put(base.get(i), i);
+		
+		ByteArrayDataOutput ops = ByteStreams.newDataOutput();
+		for (IRecipe r : recipes) {
+			Integer i = positions.get(r);
+			byte[] bytes = encode(r);
+			
+			if (i != null && Arrays.equals(bytes, encoded.get(i))) {
+				ops.writeByte(KEEP);
+				ops.writeInt(i);
+			}
+			else if (bytes[0] != OPAQUE) {
+				ops.writeByte(NEW);
+				ops.write(bytes);
+			}
+			else {
+				FMLLog.info("[%s] Not saving the recipe snapshot, as a recipe of %s cannot be stored",
+						NAME, r.getClass().getName());
+				return false;
+			}
+		}
+		
+		File tmp = new File(file.getPath() + ".tmp");
+		Closer closer = Closer.create();
+		try {
+			DataOutputStream out = closer.register(new DataOutputStream(new BufferedOutputStream(
+					new GZIPOutputStream(new FileOutputStream(tmp)))));
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			out.write(key.asBytes());
+			out.writeInt(base.size());
+			out.writeInt(prioritized);
+			out.writeInt(recipes.size());
+			out.write(ops.toByteArray());
+			
+		} catch (Throwable e) {
+			throw closer.rethrow(e, IOException.class);
+		} finally {
+			closer.close();
+		}
+		
+		Files.move(tmp, file);
+		return true;
+	}
+	
+	/**
+	 * Rebuilds the recipe list from the file if it was stored under the key from the list captured.
+	 * Returns false and leaves the list untouched if the file is missing, stale or unreadable.
+	 */
+	public boolean replay(File file, HashCode key) {
+		if (!file.isFile())
+			return false;
+		
+		List<IRecipe> recipes;
+		int prioritized;
+		
+		try {
+			Closer closer = Closer.create();
+			try {
+				DataInputStream in = closer.register(new DataInputStream(new BufferedInputStream(
+						new GZIPInputStream(new FileInputStream(file)))));
+				
+				if (in.readInt() != MAGIC || in.readInt() != VERSION)
+					return false;
+				byte[] stored = new byte[key.bits() / 8];
+				in.readFully(stored);
+				if (!Arrays.equals(stored, key.asBytes()) || in.readInt() != base.size())
+					return false;
+				
+				prioritized = in.readInt();
+				int size = in.readInt();
+				recipes = Lists.newArrayListWithCapacity(size);
+				
+				for (int k = 0; k < size; k++)
+					if (in.readByte() == KEEP)
+						recipes.add(base.get(in.readInt()));
+					else
+						recipes.add(readRecipe(in));
+				
+			} catch (Throwable e) {
+				throw closer.rethrow(e, IOException.class);
+			} finally {
+				closer.close();
+			}
+			
+		} catch (Exception e) {
+			FMLLog.log(WARN, e, "[%s] Unable to replay the recipe snapshot", NAME);
+			return false;
+		}
+		
+		List<IRecipe> list = RecipeFinder.entireRecipeList();
+		list.clear();
+		if (list instanceof ObservableRecipeList) {
+			((ObservableRecipeList) list).prioritize(recipes.subList(0, prioritized));
+			list.addAll(recipes.subList(prioritized, recipes.size()));
+		}
+		else
+			list.addAll(recipes);
+		
+		return true;
+	}
+	
+	
+	
+	/**
+	 * The recipe as it would be stored, led by its kind. Recipes that cannot be rebuilt are
+	 * described by their classes and outputs instead.
+	 */
+	private static byte[] encode(IRecipe recipe) {
+		ByteArrayDataOutput out = ByteStreams.newDataOutput();
+		try {
+			writeRecipe(recipe, out);
+			
+		} catch (IllegalArgumentException e) {
+			out = ByteStreams.newDataOutput();
+			out.writeByte(OPAQUE);
+			out.writeUTF(recipe.getClass().getName());
+			
+			ItemStack output = recipe.getRecipeOutput();
+			String name = output == null ? null : itemRegistry.getNameForObject(output.getItem());
+			out.writeUTF(name == null ? "" : name);
+			out.writeInt(output == null ? 0 : output.stackSize);
+			out.writeInt(output == null ? 0 : output.getItemDamage());
+		}
+		return out.toByteArray();
+	}
+	
+	private static void writeRecipe(IRecipe recipe, ByteArrayDataOutput out) {
+		Class<?> c = recipe.getClass();
+		boolean prioritized = BasicRecipeView.isPrioritized(recipe);
+		if (!prioritized && c != ShapedRecipes.class && c != ShapelessRecipes.class
+				&& c != ShapedOreRecipe.class && c != ShapelessOreRecipe.class)
+			throw new IllegalArgumentException();
+		
+		boolean shaped = recipe instanceof ShapedRecipes || recipe instanceof ShapedOreRecipe;
+		Collection<RecipeElement> inputs = new BasicRecipeView(recipe, true).getInputView();
+		
+		out.writeByte(shaped ? SHAPED : SHAPELESS);
+		out.writeBoolean(prioritized);
+		if (shaped) {
+			out.writeBoolean(BasicRecipeView.getMirrored(recipe));
+			out.writeInt(BasicRecipeView.getWidth(recipe));
+			out.writeInt(BasicRecipeView.getHeight(recipe));
+		}
+		
+		out.writeInt(inputs.size());
+		for (RecipeElement e : inputs)
+			if (e.isOre()) {
+				String ore = e.ore();
+				if (ore == null)
+					throw new IllegalArgumentException();
+				out.writeByte(ORE);
+				out.writeUTF(ore);
+			}
+			else if (e.item != null) {
+				out.writeByte(ITEM);
+				writeItem(e.item, out);
+				out.writeInt(e.metadata);
+			}
+			else
+				out.writeByte(EMPTY);
+		
+		ItemStack output = recipe.getRecipeOutput();
+		if (output == null)
+			throw new IllegalArgumentException();
+		writeItem(output.getItem(), out);
+		out.writeInt(output.stackSize);
+		out.writeInt(output.getItemDamage());
+		out.writeBoolean(output.stackTagCompound != null);
+		if (output.stackTagCompound != null)
+			try {
+				CompressedStreamTools.write(output.stackTagCompound, out);
+			} catch (IOException e) {
+				throw new AssertionError(e);
+			}
+	}
+	
+	private static void writeItem(Item item, DataOutput out) {
+		String name = itemRegistry.getNameForObject(item);
+		if (name == null)
+			throw new IllegalArgumentException();
+		try {
+			out.writeUTF(name);
+		} catch (IOException e) {
+			throw new AssertionError(e);
+		}
+	}
+	
+	
+	private static IRecipe readRecipe(DataInput in) throws IOException {
+		byte kind = in.readByte();
+		if (kind != SHAPED && kind != SHAPELESS)
+			throw new IOException("Unknown recipe kind " + kind);
+		
+		boolean prioritized = in.readBoolean(), mirrored = false;
+		int w = 0, h = 0;
+		if (kind == SHAPED) {
+			mirrored = in.readBoolean();
+			w = in.readInt();
+			h = in.readInt();
+		}
+		
+		int size = in.readInt();
+		List<RecipeElement> inputs = Lists.newArrayListWithCapacity(size);
+		for (int i = 0; i < size; i++)
+			switch (in.readByte()) {
+			case ORE:
+				inputs.add(new RecipeElement(in.readUTF()));
+				break;
+			case ITEM:
+				inputs.add(new RecipeElement(readItem(in), in.readInt()));
+				break;
+			default:
+				inputs.add(RecipeElement.NULL_ELEMENT);
+			}
+		
+		ItemStack output = new ItemStack(readItem(in), in.readInt(), in.readInt());
+		if (in.readBoolean())
+			output.stackTagCompound = CompressedStreamTools.read(in);
+		
+		IRecipe ret = kind == SHAPED ?
+				BasicRecipeView.explicitShaped(mirrored, w, h, inputs, output) :
+				BasicRecipeView.explicitShapeless(inputs, output);
+		return prioritized ? new BasicRecipeView(ret, true).getPrioritized() : ret;
+	}
+	
+	private static Item readItem(DataInput in) throws IOException {
+		String name = in.readUTF();
+		Item ret = (Item) itemRegistry.getObject(name);
+		if (ret == null)
+			throw new IOException("Missing item " + name);
+		return ret;
+	}
+	
+}
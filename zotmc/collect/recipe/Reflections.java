@@ -22,11 +22,15 @@ import static cpw.mods.fml.relauncher.ReflectionHelper.findField;
 import static net.minecraft.item.crafting.FurnaceRecipes.smelting;
 
 import java.lang.reflect.Field;
+import java.util.AbstractList;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+import net.minecraft.inventory.InventoryCrafting;
 import net.minecraft.item.ItemStack;
+import net.minecraft.item.crafting.CraftingManager;
 import net.minecraft.item.crafting.FurnaceRecipes;
 import net.minecraft.item.crafting.ShapedRecipes;
 import net.minecraft.item.crafting.ShapelessRecipes;
@@ -51,6 +55,43 @@ class Reflections {
 	
 	static final Map<Integer, ArrayList<ItemStack>> ORE_STACKS =
 			ReflectionHelper.getPrivateValue(OreDictionary.class, null, "oreStacks");
+	
+	private static final Field MOD_COUNT = findModCount(AbstractList.class);
+	private static final Field MAP_MOD_COUNT = findModCount(HashMap.class);
+	
+	private static Field findModCount(Class<?> clz) {
+		try {
+			return findField(clz, "modCount");
+		} catch (RuntimeException e) {
+			return null;
+		}
+	}
+	
+	/**
+	 * The count of structural modifications to the list, or -1 if it is not available.
+	 */
+	static int modCount(List<?> list) {
+		if (list instanceof ObservableRecipeList)
+			return ((ObservableRecipeList) list).modCount();
+		if (MOD_COUNT != null && list instanceof AbstractList)
+			try {
+				return MOD_COUNT.getInt(list);
+			} catch (IllegalAccessException ignored) { }
+		
+		return -1;
+	}
+	
+	/**
+	 * The count of structural modifications to the map, or -1 if it is not available.
+	 */
+	static int modCount(Map<?, ?> map) {
+		if (MAP_MOD_COUNT != null && map instanceof HashMap)
+			try {
+				return MAP_MOD_COUNT.getInt(map);
+			} catch (IllegalAccessException ignored) { }
+		
+		return -1;
+	}
 
 	
 	
@@ -66,7 +107,9 @@ class Reflections {
 		HEIGHT				(ShapedOreRecipe.class,		false, "height"),
 		INPUT				(ShapedOreRecipe.class,		false, "input"),
 		OUTPUT_S			(ShapedOreRecipe.class,		false, "output"),
-		OUTPUT_SL			(ShapelessOreRecipe.class,	false, "output");
+		OUTPUT_SL			(ShapelessOreRecipe.class,	false, "output"),
+		RECIPES				(CraftingManager.class,		true, "recipes", "field_77597_b"),
+		INVENTORY_WIDTH		(InventoryCrafting.class,	true, "inventoryWidth", "field_70464_b");
 		
 
 		private final Field field;
@@ -0,0 +1,74 @@
+/*
+ * Copyright (c) 2014, Zothf, All rights reserved.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library.
+ */
+
+package zotmc.collect.recipe;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Serializes the access of the scripts run concurrently to the registries that are not forked with
+ * the recipe list: the smelting recipes, the fuels and the ore dictionary. A thread running such
+ * a script takes the lock on its first access through McCollect and keeps it until the script ends,
+ * as the maps obtained are used long after that. Lookups of ore lists take the lock only briefly.
+ * 
+ * @author zot
+ */
+public class RegistryLock {
+	
+	private static final ReentrantLock lock = new ReentrantLock();
+	private static final ThreadLocal<Boolean> confined = new ThreadLocal<Boolean>();
+	
+	/**
+	 * Marks the current thread as running a script concurrently with others.
+	 */
+	public static void confine() {
+		confined.set(Boolean.TRUE);
+	}
+	
+	/**
+	 * Releases the lock if held by the current thread, and ends its confinement.
+	 */
+	public static void release() {
+		confined.remove();
+		while (lock.isHeldByCurrentThread())
+			lock.unlock();
+	}
+	
+	/**
+	 * Takes the lock until {@link #release} if the current thread is confined.
+	 */
+	static void acquire() {
+		if (confined.get() != null && !lock.isHeldByCurrentThread())
+			lock.lock();
+	}
+	
+	/**
+	 * Takes the lock until {@link #exit} if the current thread is confined, returning whether it did.
+	 */
+	static boolean enter() {
+		if (confined.get() == null)
+			return false;
+		lock.lock();
+		return true;
+	}
+	
+	static void exit(boolean entered) {
+		if (entered)
+			lock.unlock();
+	}
+	
+}